@@ -0,0 +1,171 @@
+package com.restaurant;
+
+import java.io.Serializable;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free, append-only sequence for write-heavy logs such as the order history.
+ *
+ * Elements live in chunks whose sizes double (by default 1024, 2048, 4096, ...), so appending never copies
+ * existing elements. An append claims a slot with one atomic increment, fills it, and then
+ * moves the published size forward over every filled slot. Readers only look at the published
+ * prefix, so a snapshot is simply "the first size() elements": taking one is O(1) and it never
+ * changes afterwards, however many appends happen meanwhile.
+ *
+ * @param <T> The element type; null elements are not allowed.
+ */
+final class AppendOnlyLog<T> implements Iterable<T>, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final int DEFAULT_FIRST_CHUNK_SIZE = 1024;
+
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(Object[].class);
+
+    private final int firstChunkBits;
+    private final int maxSize;
+    private final AtomicReferenceArray<Object[]> chunks;
+    private final AtomicInteger claimed = new AtomicInteger(); // Slots handed out to appenders
+    private final AtomicInteger published = new AtomicInteger(); // Slots readers may see; all filled
+
+    // Creates a log for a large, growing sequence such as a whole order history.
+    AppendOnlyLog() {
+        this(DEFAULT_FIRST_CHUNK_SIZE);
+    }
+
+    /**
+     * Creates a log whose first chunk has the given size. Small first chunks suit the many
+     * short sequences of an index; each later chunk is still twice the size of the one before.
+     *
+     * @param firstChunkSize Size of the first chunk, a power of two.
+     */
+    AppendOnlyLog(int firstChunkSize) {
+        if (firstChunkSize < 1 || Integer.bitCount(firstChunkSize) != 1) {
+            throw new IllegalArgumentException("First chunk size must be a power of two: " + firstChunkSize);
+        }
+        this.firstChunkBits = Integer.numberOfTrailingZeros(firstChunkSize);
+        // As many chunks as keep the last chunk's size within an int.
+        int maxChunks = 31 - firstChunkBits;
+        this.maxSize = (int) Math.min(Integer.MAX_VALUE, ((long) firstChunkSize << maxChunks) - firstChunkSize);
+        this.chunks = new AtomicReferenceArray<>(maxChunks);
+    }
+
+    /**
+     * Appends an element. Safe to call from any number of threads at once.
+     *
+     * @param element The element to append.
+     * @return The element's index.
+     * @throws IllegalStateException If the log is full.
+     */
+    public int append(T element) {
+        Objects.requireNonNull(element, "element");
+        int index = claimed.getAndIncrement();
+        if (index < 0 || index >= maxSize) {
+            claimed.set(maxSize); // Keep the counter from wrapping around
+            throw new IllegalStateException("Append-only log is full.");
+        }
+        SLOT.setRelease(chunkFor(index, true), offsetOf(index), element);
+
+        // Publish every contiguous filled slot, including ones filled by slower appenders before us.
+        int visible;
+        while ((visible = published.get()) < Math.min(claimed.get(), maxSize)
+                && SLOT.getAcquire(chunkFor(visible, true), offsetOf(visible)) != null) {
+            published.compareAndSet(visible, visible + 1);
+        }
+        return index;
+    }
+
+    // Appends every element of the list, in order.
+    public void appendAll(List<? extends T> elements) {
+        for (T element : elements) {
+            append(element);
+        }
+    }
+
+    // Number of published elements.
+    public int size() {
+        return published.get();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Gets a published element.
+     *
+     * @param index The element's index.
+     * @return The element.
+     * @throws IndexOutOfBoundsException If the index is not below {@link #size()}.
+     */
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        Objects.checkIndex(index, published.get());
+        return (T) SLOT.getAcquire(chunkFor(index, false), offsetOf(index));
+    }
+
+    /**
+     * Takes a consistent, read-only view of the elements published so far. Nothing is copied;
+     * later appends do not show up in the view.
+     *
+     * @return The snapshot.
+     */
+    public List<T> snapshot() {
+        int size = published.get();
+        return new Snapshot(size);
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return snapshot().iterator();
+    }
+
+    private Object[] chunkFor(int index, boolean create) {
+        int chunkIndex = chunkIndexOf(index);
+        Object[] chunk = chunks.get(chunkIndex);
+        if (chunk == null && create) {
+            chunks.compareAndSet(chunkIndex, null, new Object[1 << (firstChunkBits + chunkIndex)]);
+            chunk = chunks.get(chunkIndex);
+        }
+        return chunk;
+    }
+
+    // With first chunk size F, chunk k holds indexes F * (2^k - 1) up to F * (2^(k+1) - 1) - 1.
+    private int chunkIndexOf(int index) {
+        return 31 - Integer.numberOfLeadingZeros((index >>> firstChunkBits) + 1);
+    }
+
+    private int offsetOf(int index) {
+        int chunkIndex = chunkIndexOf(index);
+        return index - ((1 << (firstChunkBits + chunkIndex)) - (1 << firstChunkBits));
+    }
+
+    private final class Snapshot extends AbstractList<T> implements RandomAccess {
+
+        private final int size;
+
+        Snapshot(int size) {
+            this.size = size;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T get(int index) {
+            Objects.checkIndex(index, size);
+            return (T) SLOT.getAcquire(chunkFor(index, false), offsetOf(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.restaurant;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Picks each day's specials from the dishes the menu marks as candidates.
+ *
+ * The selection is a pure function of the menu, the date and a seed: every session, thread
+ * and restart sees the same specials on the same day, and they change at midnight in the
+ * clock's time zone. Today's selection is computed once and published through an atomic
+ * reference, so readers never lock and never see a half-built list. The returned dishes are
+ * the menu's own instances.
+ */
+public final class DailySpecials {
+
+    // Seed used unless another is given; changing it gives a different rotation.
+    public static final long DEFAULT_SEED = 0x5AB0_4B4A_5111_E7A1L;
+
+    private final long seed;
+    private final Clock clock;
+
+    // The most recent selection served by today().
+    private final AtomicReference<Selection> published = new AtomicReference<>();
+
+    private record Selection(MenuSnapshot menu, LocalDate date, int limit, List<Dish> dishes) {
+    }
+
+    // Creates an engine with the default seed whose days follow the system time zone.
+    public DailySpecials() {
+        this(DEFAULT_SEED, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates an engine.
+     *
+     * @param seed  Seed of the rotation.
+     * @param clock Clock whose date and time zone define "today".
+     */
+    public DailySpecials(long seed, Clock clock) {
+        this.seed = seed;
+        this.clock = clock;
+    }
+
+    // The current date in the clock's time zone.
+    public LocalDate today() {
+        return LocalDate.now(clock);
+    }
+
+    /**
+     * Today's specials. Computed on the first call of the day (or after the menu changes) and
+     * then served from the published selection.
+     *
+     * @param menu  The menu version to pick from.
+     * @param limit Maximum number of specials.
+     * @return Up to {@code limit} dishes, in the order they are featured.
+     */
+    public List<Dish> today(MenuSnapshot menu, int limit) {
+        return forDay(menu, today(), limit);
+    }
+
+    /**
+     * The specials of a given day, served from the published selection when it is for that day.
+     * Callers that also key something else by the day read the date once and pass it here.
+     *
+     * @param menu  The menu version to pick from.
+     * @param date  The day, normally {@link #today()}.
+     * @param limit Maximum number of specials.
+     * @return Up to {@code limit} dishes, in the order they are featured.
+     */
+    public List<Dish> forDay(MenuSnapshot menu, LocalDate date, int limit) {
+        Selection current = published.get();
+        if (current != null && current.menu() == menu && current.date().equals(date) && current.limit() == limit) {
+            return current.dishes();
+        }
+        // Racing threads compute the same selection, so whichever one publishes is correct.
+        Selection selection = new Selection(menu, date, limit, select(menu, date, limit));
+        published.set(selection);
+        return selection.dishes();
+    }
+
+    /**
+     * The specials for any date, e.g. to print next week's rotation.
+     *
+     * @param menu  The menu version to pick from.
+     * @param date  The day.
+     * @param limit Maximum number of specials.
+     * @return Up to {@code limit} dishes, in the order they are featured.
+     */
+    public List<Dish> select(MenuSnapshot menu, LocalDate date, int limit) {
+        List<Dish> candidates = menu.getIrishDishes();
+        int count = Math.min(Math.max(limit, 0), candidates.size());
+        // java.util.Random's sequence is fixed by its specification, so the rotation is the same on every JVM.
+        Random random = new Random(mix(seed ^ date.toEpochDay()));
+        int[] order = new int[candidates.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        List<Dish> specials = new ArrayList<>(count);
+        // Partial Fisher-Yates shuffle: only the first count positions are drawn.
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(order.length - i);
+            int picked = order[j];
+            order[j] = order[i];
+            order[i] = picked;
+            specials.add(candidates.get(picked));
+        }
+        return List.copyOf(specials);
+    }
+
+    // Spreads consecutive days over unrelated seeds (the SplitMix64 finalizer).
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,8 +1,12 @@
 package com.restaurant;
 
 import java.io.Serializable;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 /**
  * Represents a dish in the menu.
@@ -18,43 +22,96 @@ public class Dish implements Serializable {
         BEVERAGE
     }
 
+    /**
+     * Dietary and allergen attributes a dish can be marked with in the menu data.
+     */
+    public enum Attribute {
+        VEGETARIAN,
+        VEGAN,
+        GLUTEN_FREE,
+        CONTAINS_NUTS,
+        CONTAINS_DAIRY,
+        CONTAINS_EGGS,
+        CONTAINS_FISH,
+        CONTAINS_ALCOHOL;
+
+        // The attribute's flag in the menu data, e.g. "gluten-free" or "contains-nuts".
+        public String flag() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+
+        // The attribute with the given menu data flag, or null if there is none.
+        public static Attribute fromFlag(String flag) {
+            for (Attribute attribute : values()) {
+                if (attribute.flag().equalsIgnoreCase(flag)) {
+                    return attribute;
+                }
+            }
+            return null;
+        }
+    }
+
     private final String name;
-    private final double price;
+    private final long priceCents;
     private final Category category;
+    private final EnumSet<Attribute> attributes; // Null in dishes serialized before attributes existed
 
     /**
      * Constructor for creating a Dish.
      * 
      * @param name     The name of the dish.
-     * @param price    The price of the dish.
+     * @param price    The price of the dish, rounded half up to whole cents.
      * @param category The category of the dish.
      */
     public Dish(String name, double price, Category category) {
+        this(name, price, category, Set.of());
+    }
+
+    /**
+     * Constructor for creating a Dish with dietary and allergen attributes.
+     *
+     * @param name       The name of the dish.
+     * @param price      The price of the dish, rounded half up to whole cents.
+     * @param category   The category of the dish.
+     * @param attributes The dish's dietary and allergen attributes.
+     */
+    public Dish(String name, double price, Category category, Set<Attribute> attributes) {
         this.name = name;
-        this.price = price;
+        this.priceCents = Money.ofDecimal(price);
         this.category = category;
+        this.attributes = attributes.isEmpty() ? EnumSet.noneOf(Attribute.class) : EnumSet.copyOf(attributes);
     }
 
     public String name() {
         return name;
     }
 
+    // The exact price in cents; use this for any arithmetic.
+    public long priceCents() {
+        return priceCents;
+    }
+
+    // The price as a decimal for display with "%.2f".
     public double price() {
-        return price;
+        return Money.toDouble(priceCents);
     }
 
     public Category category() {
         return category;
     }
 
-    // Update the isVegetarian method to exclude dishes with meat or fish unless explicitly marked vegetarian
+    // The dish's dietary and allergen attributes, as marked in the menu data.
+    public Set<Attribute> attributes() {
+        return attributes == null ? Set.of() : Collections.unmodifiableSet(attributes);
+    }
+
+    public boolean has(Attribute attribute) {
+        return attributes != null && attributes.contains(attribute);
+    }
+
+    // Vegetarian dishes are marked as such in the menu data.
     public boolean isVegetarian() {
-        // Exclude specific non-vegetarian dishes by name or category
-        if (this.name.equalsIgnoreCase("Fish Cake") || this.category == Category.MAIN_COURSE) {
-            return false;
-        }
-        // Assume all other appetizers and desserts are vegetarian unless specified otherwise
-        return this.category == Category.APPETIZER || this.category == Category.DESSERT;
+        return has(Attribute.VEGETARIAN);
     }
 
     // Refactored to provide unique, flavorful descriptions for each dish
@@ -76,21 +133,25 @@ public class Dish implements Serializable {
 
     // Added a method to dynamically generate dish descriptions using localized templates
     public String getLocalizedDescription(ResourceBundle messages) {
-        return String.format(messages.getString("dish.description"), this.name, this.category);
+        return MessageCatalog.of(messages).format("dish.description", this.name, this.category);
     }
 
+    // Attributes are left out, so an order's dishes still match the menu after their tags are edited.
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Dish dish = (Dish) obj;
-        return Objects.equals(name, dish.name) &&
-               Objects.equals(price, dish.price) &&
-               category == dish.category;
+        return priceCents == dish.priceCents &&
+               category == dish.category &&
+               Objects.equals(name, dish.name);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, price, category);
+        // Same combination as Objects.hash, without boxing the price.
+        int result = 31 + Objects.hashCode(name);
+        result = 31 * result + Long.hashCode(priceCents);
+        return 31 * result + Objects.hashCode(category);
     }
 }
@@ -0,0 +1,297 @@
+package com.restaurant;
+
+import java.text.Normalizer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.TreeMap;
+
+/**
+ * Typo-tolerant prefix search over the dish names of one menu snapshot, in English and in every
+ * language a localized name is given for.
+ *
+ * Localized names come from optional {@code dish.name.<dish>} keys in the message bundles,
+ * where {@code <dish>} is the English name in lower case with words joined by '_' (for example
+ * {@code dish.name.orange_juice}). Names are compared without case, accents or punctuation,
+ * and split into words, so "shep", "pao" and "juice" all find their dishes.
+ *
+ * The words of all names are kept in a trie. A query word matches every indexed word it is a
+ * prefix of, allowing a few typos (a wrong, missing or extra letter, or two swapped letters):
+ * none for up to three letters, one for up to seven and two beyond. Typos are found by walking
+ * the trie with one row of the edit-distance table per level, abandoning a branch as soon as
+ * it can no longer come within the limit, so a search touches only the few branches near the
+ * query rather than every name.
+ */
+public final class DishSearchIndex {
+
+    private static final String NAME_KEY_PREFIX = "dish.name.";
+
+    private final MenuSnapshot menu;
+    private final List<ResourceBundle> bundles;
+
+    // The distinct words of all names, sorted; postings[w] lists the ids of the dishes using word w.
+    private final int[][] postings;
+    // Normalized full name (in any language) to the id of its dish.
+    private final Map<String, Integer> exactNames;
+
+    // Trie over the words. The children of node n are nodes firstChild[n] to firstChild[n + 1] - 1,
+    // ordered by label; the words below node n are lo[n] to hi[n] - 1, and word lo[n] ends at n if ends[n].
+    private final char[] labels;
+    private final int[] firstChild;
+    private final int[] lo;
+    private final int[] hi;
+    private final boolean[] ends;
+    private final int maxDepth;
+
+    /**
+     * A dish found by a search.
+     *
+     * @param dish  The dish.
+     * @param typos Total edits needed to match the query against the dish's name.
+     * @param exact Whether the query is one of the dish's names in full.
+     */
+    public record Match(Dish dish, int typos, boolean exact) {
+    }
+
+    private DishSearchIndex(MenuSnapshot menu, List<ResourceBundle> bundles) {
+        this.menu = menu;
+        this.bundles = List.copyOf(bundles);
+
+        TreeMap<String, List<Integer>> wordDishes = new TreeMap<>();
+        exactNames = new HashMap<>();
+        for (int id = 0; id < menu.size(); id++) {
+            Dish dish = menu.getDish(id);
+            addName(id, dish.name(), wordDishes);
+            String key = NAME_KEY_PREFIX + String.join("_", words(dish.name()));
+            for (ResourceBundle bundle : this.bundles) {
+                if (bundle.containsKey(key)) {
+                    addName(id, bundle.getString(key), wordDishes);
+                }
+            }
+        }
+
+        String[] words = wordDishes.keySet().toArray(new String[0]);
+        postings = new int[words.length][];
+        int w = 0;
+        for (List<Integer> ids : wordDishes.values()) {
+            postings[w++] = ids.stream().mapToInt(Integer::intValue).distinct().toArray();
+        }
+
+        // Nodes are numbered breadth first, so each node's children get consecutive numbers.
+        List<int[]> nodes = new ArrayList<>(); // {depth, lo, hi} per node
+        List<Character> nodeLabels = new ArrayList<>();
+        List<Integer> children = new ArrayList<>();
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        nodes.add(new int[] {0, 0, words.length});
+        nodeLabels.add('\0');
+        queue.add(0);
+        int depthLimit = 0;
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            int[] range = nodes.get(node);
+            int depth = range[0];
+            depthLimit = Math.max(depthLimit, depth);
+            children.add(nodes.size());
+            int start = range[1];
+            if (start < range[2] && words[start].length() == depth) {
+                start++; // The word ending here sorts before all longer ones
+            }
+            while (start < range[2]) {
+                char c = words[start].charAt(depth);
+                int end = start;
+                while (end < range[2] && words[end].charAt(depth) == c) {
+                    end++;
+                }
+                queue.add(nodes.size());
+                nodes.add(new int[] {depth + 1, start, end});
+                nodeLabels.add(c);
+                start = end;
+            }
+        }
+        children.add(nodes.size());
+
+        int count = nodes.size();
+        labels = new char[count];
+        firstChild = new int[count + 1];
+        lo = new int[count];
+        hi = new int[count];
+        ends = new boolean[count];
+        for (int n = 0; n < count; n++) {
+            int[] range = nodes.get(n);
+            labels[n] = nodeLabels.get(n);
+            firstChild[n] = children.get(n);
+            lo[n] = range[1];
+            hi[n] = range[2];
+            ends[n] = range[1] < range[2] && words[range[1]].length() == range[0];
+        }
+        firstChild[count] = children.get(count);
+        maxDepth = depthLimit;
+    }
+
+    /**
+     * Builds the index for a menu snapshot.
+     *
+     * @param menu    The dishes to index.
+     * @param bundles Message bundles whose localized dish names are indexed as well.
+     * @return The index.
+     */
+    public static DishSearchIndex build(MenuSnapshot menu, List<ResourceBundle> bundles) {
+        return new DishSearchIndex(menu, bundles);
+    }
+
+    // Whether this index was built for the given snapshot and bundles.
+    boolean covers(MenuSnapshot snapshot, List<ResourceBundle> withBundles) {
+        return menu == snapshot && bundles.equals(withBundles);
+    }
+
+    // The snapshot whose dishes this index finds.
+    public MenuSnapshot getMenu() {
+        return menu;
+    }
+
+    /**
+     * Finds the dishes whose names match a query. Every word of the query must match the start
+     * of some word of the dish's names, within the typo allowance for its length.
+     *
+     * @param query The text typed so far.
+     * @param limit Maximum number of matches.
+     * @return The matches, best first: an exact name, then by typos and words only matched by
+     *         their start (a typo weighing twice as much), then in menu order.
+     */
+    public List<Match> search(String query, int limit) {
+        String[] tokens = words(query);
+        if (tokens.length == 0 || limit <= 0) {
+            return List.of();
+        }
+        int dishes = menu.size();
+        int[] total = new int[dishes];
+        int[] typos = new int[dishes];
+        int[] best = new int[dishes];
+        int[][] rows = new int[maxDepth + 1][];
+        for (String token : tokens) {
+            Arrays.fill(best, Integer.MAX_VALUE);
+            int maxTypos = token.length() <= 3 ? 0 : token.length() <= 7 ? 1 : 2;
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i] == null || rows[i].length != token.length() + 1) {
+                    rows[i] = new int[token.length() + 1];
+                }
+            }
+            for (int j = 0; j <= token.length(); j++) {
+                rows[0][j] = j;
+            }
+            walk(0, 0, 0, token, maxTypos, rows, best);
+            for (int id = 0; id < dishes; id++) {
+                if (best[id] == Integer.MAX_VALUE || total[id] == Integer.MAX_VALUE) {
+                    total[id] = Integer.MAX_VALUE;
+                } else {
+                    total[id] += best[id];
+                    typos[id] += best[id] / 2;
+                }
+            }
+        }
+
+        // Ranked by cost (2 per typo plus 1 for each word only matched as a prefix), exact names
+        // first; the dish id in the low bits keeps menu order among equal costs.
+        Integer exactId = exactNames.get(String.join(" ", tokens));
+        long[] ranked = new long[dishes];
+        int found = 0;
+        for (int id = 0; id < dishes; id++) {
+            if (total[id] != Integer.MAX_VALUE) {
+                long cost = exactId != null && exactId == id ? 0 : total[id] + 1L;
+                ranked[found++] = cost << 32 | id;
+            }
+        }
+        Arrays.sort(ranked, 0, found);
+        List<Match> matches = new ArrayList<>(Math.min(found, limit));
+        for (int i = 0; i < found && i < limit; i++) {
+            int id = (int) ranked[i];
+            matches.add(new Match(menu.getDish(id), typos[id], ranked[i] >>> 32 == 0));
+        }
+        return List.copyOf(matches);
+    }
+
+    // Visits the children of a node, extending the edit-distance table by one row per level.
+    // Swapping two adjacent letters counts as one typo (optimal string alignment distance).
+    private void walk(int node, int depth, int previousMin, String token, int maxTypos, int[][] rows, int[] best) {
+        if (firstChild[node] == firstChild[node + 1]) {
+            return; // A leaf; the deepest ones have no row below them
+        }
+        int[] previous = rows[depth];
+        int[] row = rows[depth + 1];
+        int[] beforePrevious = depth > 0 ? rows[depth - 1] : null;
+        char parentLabel = labels[node];
+        for (int child = firstChild[node]; child < firstChild[node + 1]; child++) {
+            char c = labels[child];
+            row[0] = depth + 1;
+            int rowMin = row[0];
+            for (int j = 1; j <= token.length(); j++) {
+                int cost = token.charAt(j - 1) == c ? 0 : 1;
+                row[j] = Math.min(Math.min(row[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (beforePrevious != null && j > 1 && token.charAt(j - 1) == parentLabel && token.charAt(j - 2) == c) {
+                    row[j] = Math.min(row[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, row[j]);
+            }
+            int typos = row[token.length()];
+            if (typos <= maxTypos) {
+                // The whole query matches the text up to this node, so it is a prefix of every word below.
+                for (int w = lo[child]; w < hi[child]; w++) {
+                    int cost = 2 * typos + (w == lo[child] && ends[child] ? 0 : 1);
+                    for (int id : postings[w]) {
+                        best[id] = Math.min(best[id], cost);
+                    }
+                }
+            }
+            // A swap can still reach back past this row to the one above, hence previousMin + 1.
+            if (Math.min(rowMin, previousMin + 1) <= maxTypos) {
+                walk(child, depth + 1, rowMin, token, maxTypos, rows, best);
+            }
+        }
+    }
+
+    // Indexes one name of a dish.
+    private void addName(int id, String name, Map<String, List<Integer>> wordDishes) {
+        String[] words = words(name);
+        if (words.length == 0) {
+            return;
+        }
+        exactNames.putIfAbsent(String.join(" ", words), id);
+        for (String word : words) {
+            wordDishes.computeIfAbsent(word, key -> new ArrayList<>()).add(id);
+        }
+    }
+
+    /**
+     * Splits text into the words names are compared by: lower case, without accents, with
+     * anything but letters and digits separating words.
+     */
+    static String[] words(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFD).toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue; // Accents were split off by NFD
+            }
+            if (Character.isLetterOrDigit(c)) {
+                word.append(c);
+            } else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        if (!word.isEmpty()) {
+            words.add(word.toString());
+        }
+        return words.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,58 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * A list of orders, each rendered as its details table. Large histories are streamed to the
+ * destination in batches of about 64K characters, so rendering never buffers the whole history.
+ */
+public class HistoryView implements Printable {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final List<Order> orders;
+
+    // Creates a view of the given orders; pass a snapshot if the history may grow meanwhile.
+    public HistoryView(List<Order> orders) {
+        this.orders = orders;
+    }
+
+    @Override
+    public void renderTo(Appendable out) throws IOException {
+        if (orders.isEmpty()) {
+            out.append("No orders in history.").append(LINE_SEPARATOR);
+            return;
+        }
+        if (out instanceof StringBuilder sb) {
+            for (Order order : orders) {
+                order.renderTo(sb);
+            }
+            return;
+        }
+        StringBuilder sb = RenderBuffer.acquire();
+        try {
+            for (Order order : orders) {
+                order.renderTo(sb);
+                if (sb.length() >= RenderBuffer.FLUSH_CHARS) {
+                    out.append(sb);
+                    sb.setLength(0);
+                }
+            }
+            out.append(sb);
+        } finally {
+            RenderBuffer.release(sb);
+        }
+    }
+
+    // Prints the orders in batches rather than rendering the whole history first.
+    @Override
+    public void printDetails() {
+        try {
+            renderTo(System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // PrintStream.append does not throw
+        }
+    }
+}
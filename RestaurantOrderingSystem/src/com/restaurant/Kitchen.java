@@ -0,0 +1,360 @@
+package com.restaurant;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * The restaurant's long-lived kitchen.
+ * Every order submits its dishes as tickets to one shared set of stations, one per chef.
+ * Tickets are routed to the station whose chef specialises in the dish's category, and
+ * idle stations steal queued tickets from busy ones.
+ */
+public class Kitchen implements AutoCloseable {
+
+    private static final DateTimeFormatter LOG_TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    // How long an idle station waits on its own queue before trying to steal again.
+    private static final long IDLE_POLL_MILLIS = 5;
+
+    /**
+     * A single unit of work for the kitchen: one portion of one dish.
+     *
+     * @param order   The order the portion belongs to, or null for a standalone ticket.
+     * @param dish    The dish to prepare.
+     * @param unit    Which portion of the dish this is (1-based).
+     * @param units   How many portions of this dish the order contains.
+     * @param onReady  Callback run by the station once the portion is prepared.
+     * @param onFailed Callback run by the station if the portion is abandoned, or null.
+     */
+    public record DishTicket(Order order, Dish dish, int unit, int units, Runnable onReady,
+                             Consumer<Throwable> onFailed) {
+
+        public DishTicket(Order order, Dish dish, int unit, int units, Runnable onReady) {
+            this(order, dish, unit, units, onReady, null);
+        }
+    }
+
+    /**
+     * Point-in-time load figures for one station.
+     *
+     * @param chef                The chef working the station.
+     * @param category            The category the station is routed, or null for a generalist station.
+     * @param queued              Tickets currently waiting at the station.
+     * @param completed           Tickets the station has prepared so far.
+     * @param stolen              Tickets the station took from other stations' queues.
+     * @param throughputPerMinute Completed tickets per minute since the kitchen opened.
+     */
+    public record StationStats(String chef, Dish.Category category, int queued, long completed,
+                               long stolen, double throughputPerMinute) {
+    }
+
+    private final Station[] stations;
+    private final ToLongFunction<Dish> prepTimeMillis;
+    private final long openedAtNanos = System.nanoTime();
+    private volatile boolean open = true;
+    // Held while checking open and queueing tickets, and by close() while closing, so no ticket
+    // is queued after the stations may have drained their queues and stopped.
+    private final Object admission = new Object();
+    private volatile boolean logging = true;
+
+    /**
+     * Creates a kitchen with one station per chef and the default preparation time
+     * of one to three seconds per dish.
+     *
+     * @param chefs The chefs working in the kitchen.
+     */
+    public Kitchen(List<Chef> chefs) {
+        this(chefs, dish -> 1000 + ThreadLocalRandom.current().nextInt(2000));
+    }
+
+    /**
+     * Creates a kitchen with one station per chef.
+     *
+     * @param chefs          The chefs working in the kitchen.
+     * @param prepTimeMillis How long a dish takes to prepare, in milliseconds.
+     */
+    public Kitchen(List<Chef> chefs, ToLongFunction<Dish> prepTimeMillis) {
+        if (chefs == null || chefs.isEmpty()) {
+            throw new IllegalArgumentException("A kitchen needs at least one chef.");
+        }
+        this.prepTimeMillis = prepTimeMillis;
+        this.stations = new Station[chefs.size()];
+        for (int i = 0; i < stations.length; i++) {
+            stations[i] = new Station(chefs.get(i));
+        }
+        for (Station station : stations) {
+            station.worker.start();
+        }
+    }
+
+    // Enables or disables the per-dish preparation log on the console.
+    public void setLogging(boolean logging) {
+        this.logging = logging;
+    }
+
+    /**
+     * Queues a ticket at the station best suited to its dish.
+     *
+     * @param ticket The ticket to prepare.
+     * @throws IllegalStateException If the kitchen has been closed.
+     */
+    public void submit(DishTicket ticket) {
+        synchronized (admission) {
+            checkOpen();
+            route(ticket.dish()).queue.addLast(ticket);
+        }
+    }
+
+    /**
+     * Sends every dish of an order to the kitchen without waiting for any of them.
+     * The order moves to IN_PROGRESS when its first dish is started and to SERVED
+     * when its last dish is ready.
+     *
+     * @param order The order to prepare.
+     * @return A future completed with the order once all of its dishes are ready, or
+     *         exceptionally if a station is interrupted while preparing one of them.
+     * @throws IllegalStateException If the kitchen has been closed.
+     */
+    public CompletableFuture<Order> submit(Order order) {
+        CompletableFuture<Order> served = new CompletableFuture<>();
+        if (order.getTotalQuantity() == 0) {
+            order.setStatus(OrderStatus.SERVED);
+            served.complete(order);
+            return served;
+        }
+
+        AtomicInteger remaining = new AtomicInteger(order.getTotalQuantity());
+        Runnable onReady = () -> {
+            if (remaining.decrementAndGet() == 0) {
+                order.setStatus(OrderStatus.SERVED);
+                served.complete(order);
+            }
+        };
+        List<DishTicket> tickets = new ArrayList<>(order.getTotalQuantity());
+        order.forEachLine((dish, units) -> {
+            for (int unit = 1; unit <= units; unit++) {
+                tickets.add(new DishTicket(order, dish, unit, units, onReady, served::completeExceptionally));
+            }
+        });
+        // All or nothing: a closed kitchen rejects the order before any of its dishes is queued.
+        synchronized (admission) {
+            checkOpen();
+            for (DishTicket ticket : tickets) {
+                route(ticket.dish()).queue.addLast(ticket);
+            }
+        }
+        return served;
+    }
+
+    // Total number of tickets waiting across all stations.
+    public int queueDepth() {
+        int depth = 0;
+        for (Station station : stations) {
+            depth += station.queue.size();
+        }
+        return depth;
+    }
+
+    // Current load figures for every station, in the order the chefs were given.
+    public List<StationStats> stationStats() {
+        double minutes = Math.max(System.nanoTime() - openedAtNanos, 1) / 60_000_000_000.0;
+        List<StationStats> stats = new ArrayList<>(stations.length);
+        for (Station station : stations) {
+            long completed = station.completed.get();
+            stats.add(new StationStats(station.chef.getName(), station.category, station.queue.size(),
+                    completed, station.stolen.get(), completed / minutes));
+        }
+        return stats;
+    }
+
+    /**
+     * Stops accepting tickets, lets the stations finish what is already queued and waits for them.
+     */
+    @Override
+    public void close() {
+        synchronized (admission) {
+            open = false;
+        }
+        for (Station station : stations) {
+            try {
+                station.worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Maps a chef's specialty onto a dish category, e.g. "Main Course" or "desserts".
+     *
+     * @param chef The chef.
+     * @return The matching category, or null if the chef is a generalist.
+     */
+    static Dish.Category categoryOf(Chef chef) {
+        String specialty = chef.getSpecialty();
+        if (specialty == null || specialty.isBlank()) {
+            return null;
+        }
+        String normalized = specialty.trim().toUpperCase(Locale.ROOT).replace(' ', '_').replace('-', '_');
+        for (Dish.Category category : Dish.Category.values()) {
+            if (normalized.startsWith(category.name())) {
+                return category;
+            }
+        }
+        return null;
+    }
+
+    private void checkOpen() {
+        if (!open) {
+            throw new IllegalStateException("The kitchen is closed.");
+        }
+    }
+
+    // Picks the least loaded station for the dish's category, or the least loaded station overall.
+    private Station route(Dish dish) {
+        return route(stations, dish.category(), station -> station.category, station -> station.queue.size());
+    }
+
+    /**
+     * The routing policy, shared with {@link KitchenSimulator}: the station with the fewest queued
+     * tickets among those routed the dish's category, or among all stations if none is. Ties go to
+     * the earlier station.
+     *
+     * @param stations   The stations, in a fixed order.
+     * @param category   The category of the dish to route.
+     * @param categoryOf The category a station is routed, or null for a generalist station.
+     * @param queued     Tickets waiting at a station, not counting one being prepared.
+     * @return The chosen station.
+     */
+    static <S> S route(S[] stations, Dish.Category category, Function<S, Dish.Category> categoryOf,
+                       ToIntFunction<S> queued) {
+        S best = null;
+        for (S station : stations) {
+            if (categoryOf.apply(station) == category
+                    && (best == null || queued.applyAsInt(station) < queued.applyAsInt(best))) {
+                best = station;
+            }
+        }
+        if (best == null) {
+            best = stations[0];
+            for (S station : stations) {
+                if (queued.applyAsInt(station) < queued.applyAsInt(best)) {
+                    best = station;
+                }
+            }
+        }
+        return best;
+    }
+
+    // Takes a ticket from the back of the busiest other station's queue.
+    private DishTicket steal(Station thief) {
+        Station victim = null;
+        for (Station station : stations) {
+            if (station != thief && !station.queue.isEmpty()
+                    && (victim == null || station.queue.size() > victim.queue.size())) {
+                victim = station;
+            }
+        }
+        return victim == null ? null : victim.queue.pollLast();
+    }
+
+    private boolean allQueuesEmpty() {
+        return queueDepth() == 0;
+    }
+
+    private void prepare(Station station, DishTicket ticket) throws InterruptedException {
+        Dish dish = ticket.dish();
+        Order order = ticket.order();
+        if (order != null && order.getStatus() == OrderStatus.PLACED) {
+            order.setStatus(OrderStatus.IN_PROGRESS);
+        }
+        if (logging) {
+            System.out.printf("[%s] --- Preparing dish: %s (%d of %d) --- %n",
+                    LocalTime.now().format(LOG_TIME), dish.name(), ticket.unit(), ticket.units());
+        }
+
+        long millis = prepTimeMillis.applyAsLong(dish);
+        if (millis > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(millis);
+            } catch (InterruptedException e) {
+                // The portion will never be ready, so whoever waits on it must hear about it.
+                if (ticket.onFailed() != null) {
+                    ticket.onFailed().accept(e);
+                }
+                throw e;
+            }
+        }
+
+        if (logging) {
+            System.out.printf("[%s] >>> Dish prepared: %s (%d of %d)! %n",
+                    LocalTime.now().format(LOG_TIME), dish.name(), ticket.unit(), ticket.units());
+        }
+        station.completed.incrementAndGet();
+        if (ticket.onReady() != null) {
+            try {
+                ticket.onReady().run();
+            } catch (RuntimeException e) {
+                // A failing callback must not take the station down with it.
+                System.err.println("Kitchen callback failed for " + dish.name() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A chef's station: a ticket queue and the worker thread that drains it.
+     */
+    private final class Station implements Runnable {
+
+        private final Chef chef;
+        private final Dish.Category category;
+        private final LinkedBlockingDeque<DishTicket> queue = new LinkedBlockingDeque<>();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong stolen = new AtomicLong();
+        private final Thread worker;
+
+        Station(Chef chef) {
+            this.chef = chef;
+            this.category = categoryOf(chef);
+            this.worker = new Thread(this, "kitchen-" + chef.getName());
+            this.worker.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (open || !allQueuesEmpty()) {
+                    DishTicket ticket = queue.pollFirst();
+                    if (ticket == null) {
+                        ticket = steal(this);
+                        if (ticket != null) {
+                            stolen.incrementAndGet();
+                        }
+                    }
+                    if (ticket == null) {
+                        ticket = queue.pollFirst(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    }
+                    if (ticket != null) {
+                        prepare(this, ticket);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.restaurant;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Discrete-event simulation of a service day.
+ * Parties arrive, wait for a table and a waiter, their dishes queue at the chefs' stations,
+ * and the table is freed once they have eaten. Everything runs on a virtual clock driven
+ * by a priority queue of events, so a full evening replays in well under a second.
+ */
+public class KitchenSimulator {
+
+    private static final long MINUTE = 60_000;
+
+    private final Menu menu;
+    private final List<Table> tables;
+    private final List<Waiter> waiters;
+    private final List<Chef> chefs;
+    private final ToLongFunction<Dish> prepTimeMillis;
+    private final Random random;
+
+    // Simulation state, reset on every run.
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+    private final ArrayDeque<Party> waitingForTable = new ArrayDeque<>();
+    private final ArrayDeque<Party> waitingForWaiter = new ArrayDeque<>();
+    private final List<Table> freeTables = new ArrayList<>();
+    private int freeWaiters;
+    private Station[] stations;
+    private long now;
+    private long sequence;
+    private Stats stats;
+
+    /**
+     * Outcome of a simulated service day.
+     *
+     * @param serviceMillis      Length of the simulated service in virtual milliseconds.
+     * @param partiesArrived     Parties that came through the door.
+     * @param partiesServed      Parties that were seated, served and left.
+     * @param dishesServed       Individual dishes prepared.
+     * @param dishWaitMinutes    Average minutes each dish waited in a station queue, by dish name.
+     * @param chefUtilisation    Fraction of the service each chef spent cooking, by chef name.
+     * @param avgTurnaroundMinutes Average minutes from a party being seated to its table being free.
+     * @param avgTableWaitMinutes  Average minutes parties waited at the door for a table.
+     */
+    public record Report(long serviceMillis, int partiesArrived, int partiesServed, int dishesServed,
+                         Map<String, Double> dishWaitMinutes, Map<String, Double> chefUtilisation,
+                         double avgTurnaroundMinutes, double avgTableWaitMinutes) {
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("Service: %.1f h | parties %d arrived, %d served | %d dishes%n",
+                    serviceMillis / 3_600_000.0, partiesArrived, partiesServed, dishesServed));
+            sb.append(String.format("Table turnaround: %.1f min | wait for table: %.1f min%n",
+                    avgTurnaroundMinutes, avgTableWaitMinutes));
+            sb.append("Chef utilisation:\n");
+            chefUtilisation.forEach((chef, load) -> sb.append(String.format("  %-12s %5.1f%%%n", chef, load * 100)));
+            sb.append("Average dish wait at the stations:\n");
+            dishWaitMinutes.forEach((dish, wait) -> sb.append(String.format("  %-25s %6.1f min%n", dish, wait)));
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Creates a simulator with the default preparation times per dish category.
+     *
+     * @param menu    The menu parties order from.
+     * @param tables  The tables in the dining room.
+     * @param waiters The waiters taking orders.
+     * @param chefs   The chefs, one station each.
+     * @param seed    Seed for arrivals, party sizes and dish choices.
+     */
+    public KitchenSimulator(Menu menu, List<Table> tables, List<Waiter> waiters, List<Chef> chefs, long seed) {
+        this(menu, tables, waiters, chefs, null, seed);
+    }
+
+    /**
+     * Creates a simulator.
+     *
+     * @param menu           The menu parties order from.
+     * @param tables         The tables in the dining room.
+     * @param waiters        The waiters taking orders.
+     * @param chefs          The chefs, one station each.
+     * @param prepTimeMillis Virtual preparation time per dish, or null for the category defaults.
+     * @param seed           Seed for arrivals, party sizes and dish choices.
+     */
+    public KitchenSimulator(Menu menu, List<Table> tables, List<Waiter> waiters, List<Chef> chefs,
+                            ToLongFunction<Dish> prepTimeMillis, long seed) {
+        if (tables.isEmpty() || waiters.isEmpty() || chefs.isEmpty()) {
+            throw new IllegalArgumentException("A simulation needs at least one table, waiter and chef.");
+        }
+        this.menu = menu;
+        this.tables = List.copyOf(tables);
+        this.waiters = List.copyOf(waiters);
+        this.chefs = List.copyOf(chefs);
+        this.random = new Random(seed);
+        this.prepTimeMillis = prepTimeMillis != null ? prepTimeMillis : this::defaultPrepTime;
+    }
+
+    /**
+     * Runs the simulator from the command line.
+     * Arguments: [serviceHours] [partiesPerHour] [seed].
+     */
+    public static void main(String[] args) {
+        double hours = args.length > 0 ? Double.parseDouble(args[0]) : 12;
+        double partiesPerHour = args.length > 1 ? Double.parseDouble(args[1]) : 6;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+
+        List<Table> tables = new ArrayList<>();
+        for (int i = 1; i <= 12; i++) {
+            tables.add(new Table(i, i <= 4 ? 2 : i <= 9 ? 4 : 8));
+        }
+        List<Waiter> waiters = List.of(new Waiter("Sophia", 1), new Waiter("Liam", 2), new Waiter("Olivia", 3));
+        KitchenSimulator simulator = new KitchenSimulator(new Menu(), tables, waiters, RestaurantApp.KITCHEN_CHEFS, seed);
+
+        long started = System.nanoTime();
+        Report report = simulator.run((long) (hours * 60 * MINUTE), partiesPerHour);
+        System.out.print(report);
+        System.out.printf("Simulated in %.1f ms%n", (System.nanoTime() - started) / 1e6);
+    }
+
+    /**
+     * Replays one service day. Parties keep arriving until the service ends; parties
+     * already inside are still served, so the clock may run past the closing time.
+     *
+     * @param serviceMillis  Length of the service in virtual milliseconds.
+     * @param partiesPerHour Average arrival rate of parties.
+     * @return The figures collected during the run.
+     */
+    public Report run(long serviceMillis, double partiesPerHour) {
+        reset();
+        double meanGap = 60 * MINUTE / partiesPerHour;
+        schedule((long) exponential(meanGap), EventType.PARTY_ARRIVES, (Party) null);
+
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            now = event.time;
+            switch (event.type) {
+                case PARTY_ARRIVES -> {
+                    long next = now + (long) exponential(meanGap);
+                    if (next < serviceMillis) {
+                        schedule(next, EventType.PARTY_ARRIVES, (Party) null);
+                    }
+                    partyArrives();
+                }
+                case ORDER_TAKEN -> orderTaken(event.party);
+                case DISH_READY -> dishReady(event.station);
+                case PARTY_LEAVES -> partyLeaves(event.party);
+            }
+        }
+        return report(Math.max(serviceMillis, now));
+    }
+
+    private void reset() {
+        events.clear();
+        waitingForTable.clear();
+        waitingForWaiter.clear();
+        freeTables.clear();
+        freeTables.addAll(tables);
+        freeWaiters = waiters.size();
+        stations = new Station[chefs.size()];
+        for (int i = 0; i < stations.length; i++) {
+            stations[i] = new Station(chefs.get(i));
+        }
+        now = 0;
+        sequence = 0;
+        stats = new Stats();
+    }
+
+    private void partyArrives() {
+        int largest = 0;
+        for (Table table : tables) {
+            largest = Math.max(largest, table.getCapacity());
+        }
+        Party party = new Party(1 + random.nextInt(largest), now);
+        stats.partiesArrived++;
+        waitingForTable.addLast(party);
+        seatWaitingParties();
+    }
+
+    // Seats waiting parties in arrival order at the smallest free table that fits them.
+    private void seatWaitingParties() {
+        for (var it = waitingForTable.iterator(); it.hasNext(); ) {
+            Party party = it.next();
+            Table best = null;
+            for (Table table : freeTables) {
+                if (table.getCapacity() >= party.size
+                        && (best == null || table.getCapacity() < best.getCapacity())) {
+                    best = table;
+                }
+            }
+            if (best != null) {
+                freeTables.remove(best);
+                it.remove();
+                party.table = best;
+                party.seatedAt = now;
+                stats.tableWaitMillis += now - party.arrivedAt;
+                waitingForWaiter.addLast(party);
+            }
+        }
+        assignWaiters();
+    }
+
+    private void assignWaiters() {
+        while (freeWaiters > 0 && !waitingForWaiter.isEmpty()) {
+            freeWaiters--;
+            Party party = waitingForWaiter.pollFirst();
+            schedule(now + 2 * MINUTE + random.nextInt(3) * MINUTE, EventType.ORDER_TAKEN, party);
+        }
+    }
+
+    private void orderTaken(Party party) {
+        freeWaiters++;
+        assignWaiters();
+
+        List<Dish> dishes = menu.getAllDishes();
+        int dishCount = party.size + random.nextInt(party.size + 1);
+        party.dishesLeft = dishCount;
+        for (int i = 0; i < dishCount; i++) {
+            Ticket ticket = new Ticket(party, dishes.get(random.nextInt(dishes.size())), now);
+            route(ticket.dish).queue.addLast(ticket);
+        }
+        for (Station station : stations) {
+            startNext(station);
+        }
+    }
+
+    private void dishReady(Station station) {
+        Ticket ticket = station.current;
+        station.busyMillis += now - station.startedAt;
+        station.current = null;
+        stats.dishesServed++;
+
+        Party party = ticket.party;
+        if (--party.dishesLeft == 0) {
+            long eatingTime = 25 * MINUTE + random.nextInt(35) * MINUTE;
+            schedule(now + eatingTime, EventType.PARTY_LEAVES, party);
+        }
+        startNext(station);
+    }
+
+    private void partyLeaves(Party party) {
+        stats.partiesServed++;
+        stats.turnaroundMillis += now - party.seatedAt;
+        freeTables.add(party.table);
+        seatWaitingParties();
+    }
+
+    // Starts the station's next ticket, stealing from the busiest station when its own queue is empty.
+    private void startNext(Station station) {
+        if (station.current != null) {
+            return;
+        }
+        Ticket ticket = station.queue.pollFirst();
+        if (ticket == null) {
+            Station victim = null;
+            for (Station other : stations) {
+                if (other != station && !other.queue.isEmpty()
+                        && (victim == null || other.queue.size() > victim.queue.size())) {
+                    victim = other;
+                }
+            }
+            ticket = victim == null ? null : victim.queue.pollLast();
+        }
+        if (ticket == null) {
+            return;
+        }
+        station.current = ticket;
+        station.startedAt = now;
+        stats.recordDishWait(ticket.dish.name(), now - ticket.queuedAt);
+        schedule(now + prepTimeMillis.applyAsLong(ticket.dish), EventType.DISH_READY, station);
+    }
+
+    // The live kitchen's routing policy, so the simulation predicts how it spreads the dishes.
+    private Station route(Dish dish) {
+        return Kitchen.route(stations, dish.category(), station -> station.category, station -> station.queue.size());
+    }
+
+    private long defaultPrepTime(Dish dish) {
+        long base = switch (dish.category()) {
+            case APPETIZER -> 3;
+            case MAIN_COURSE -> 6;
+            case DESSERT -> 2;
+            case BEVERAGE -> 1;
+        };
+        return base * MINUTE + random.nextInt((int) (base * MINUTE / 2) + 1);
+    }
+
+    private double exponential(double mean) {
+        return -mean * Math.log(1 - random.nextDouble());
+    }
+
+    private void schedule(long time, EventType type, Party party) {
+        events.add(new Event(time, sequence++, type, party, null));
+    }
+
+    private void schedule(long time, EventType type, Station station) {
+        events.add(new Event(time, sequence++, type, null, station));
+    }
+
+    private Report report(long serviceMillis) {
+        Map<String, Double> dishWait = new TreeMap<>();
+        stats.dishWaitTotal.forEach((dish, total) ->
+            dishWait.put(dish, total / (double) stats.dishWaitCount.get(dish) / MINUTE));
+
+        Map<String, Double> utilisation = new LinkedHashMap<>();
+        for (Station station : stations) {
+            utilisation.put(station.chef.getName(), station.busyMillis / (double) serviceMillis);
+        }
+
+        int seated = stats.partiesServed;
+        return new Report(serviceMillis, stats.partiesArrived, seated, stats.dishesServed, dishWait, utilisation,
+                seated == 0 ? 0 : stats.turnaroundMillis / (double) seated / MINUTE,
+                seated == 0 ? 0 : stats.tableWaitMillis / (double) seated / MINUTE);
+    }
+
+    private enum EventType {
+        PARTY_ARRIVES,
+        ORDER_TAKEN,
+        DISH_READY,
+        PARTY_LEAVES
+    }
+
+    // Events at the same virtual time run in the order they were scheduled.
+    private record Event(long time, long sequence, EventType type, Party party, Station station)
+            implements Comparable<Event> {
+
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(time, other.time);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private static final class Party {
+        private final int size;
+        private final long arrivedAt;
+        private Table table;
+        private long seatedAt;
+        private int dishesLeft;
+
+        Party(int size, long arrivedAt) {
+            this.size = size;
+            this.arrivedAt = arrivedAt;
+        }
+    }
+
+    private record Ticket(Party party, Dish dish, long queuedAt) {
+    }
+
+    private static final class Station {
+        private final Chef chef;
+        private final Dish.Category category;
+        private final ArrayDeque<Ticket> queue = new ArrayDeque<>();
+        private Ticket current;
+        private long startedAt;
+        private long busyMillis;
+
+        Station(Chef chef) {
+            this.chef = chef;
+            this.category = Kitchen.categoryOf(chef);
+        }
+    }
+
+    private static final class Stats {
+        private int partiesArrived;
+        private int partiesServed;
+        private int dishesServed;
+        private long turnaroundMillis;
+        private long tableWaitMillis;
+        private final Map<String, Long> dishWaitTotal = new LinkedHashMap<>();
+        private final Map<String, Long> dishWaitCount = new LinkedHashMap<>();
+
+        void recordDishWait(String dish, long waitMillis) {
+            dishWaitTotal.merge(dish, waitMillis, Long::sum);
+            dishWaitCount.merge(dish, 1L, Long::sum);
+        }
+    }
+}
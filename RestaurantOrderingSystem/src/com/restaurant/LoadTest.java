@@ -0,0 +1,146 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Simulates a dinner rush by running one virtual thread per table.
+ * Each table builds orders from the menu, sends them through the shared kitchen,
+ * waits for them to be served and records them in the order history.
+ */
+public final class LoadTest {
+
+    // Table counts used when no explicit count is given.
+    private static final int[] DEFAULT_TABLE_COUNTS = {1_000, 10_000, 100_000};
+
+    private static final List<String> WAITER_NAMES = List.of("Sophia", "Liam", "Olivia", "Noah", "Emma");
+
+    private LoadTest() {
+    }
+
+    /**
+     * The outcome of one load-test run.
+     *
+     * @param tables       Number of concurrent tables simulated.
+     * @param orders       Total number of orders served.
+     * @param elapsedNanos Wall-clock time for the whole run.
+     * @param p50Nanos     Median order completion latency.
+     * @param p99Nanos     99th percentile order completion latency.
+     */
+    public record Result(int tables, int orders, long elapsedNanos, long p50Nanos, long p99Nanos) {
+
+        public double ordersPerSecond() {
+            return orders / (elapsedNanos / 1_000_000_000.0);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,8d tables | %,9d orders | %8.2f s | %,12.0f orders/s | p50 %8.2f ms | p99 %8.2f ms",
+                    tables, orders, elapsedNanos / 1e9, ordersPerSecond(), p50Nanos / 1e6, p99Nanos / 1e6);
+        }
+    }
+
+    /**
+     * Runs the load test from the command line.
+     * Arguments: [tables] [ordersPerTable] [prepMillis]. Without a table count,
+     * the test is run for 1k, 10k and 100k tables in turn.
+     */
+    public static void main(String[] args) {
+        int ordersPerTable = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        long prepMillis = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        int[] tableCounts = args.length > 0 ? new int[] {Integer.parseInt(args[0])} : DEFAULT_TABLE_COUNTS;
+
+        System.out.printf("Load test: %d order(s) per table, %d ms preparation per dish, %d kitchen stations%n",
+                ordersPerTable, prepMillis, RestaurantApp.KITCHEN_CHEFS.size());
+        for (int tables : tableCounts) {
+            System.out.println(run(new Menu(), tables, ordersPerTable, prepMillis));
+        }
+    }
+
+    /**
+     * Runs one load test against a fresh kitchen and order history.
+     *
+     * @param menu           The menu tables order from.
+     * @param tables         Number of concurrent tables, one virtual thread each.
+     * @param ordersPerTable Number of orders each table places one after another.
+     * @param prepMillis     Preparation time per dish in the kitchen.
+     * @return The throughput and latency figures for the run.
+     * @throws IllegalStateException If a table failed to place or be served an order.
+     */
+    public static Result run(Menu menu, int tables, int ordersPerTable, long prepMillis) {
+        if (tables < 1 || ordersPerTable < 1) {
+            throw new IllegalArgumentException("Tables and orders per table must be positive.");
+        }
+        ResourceBundle messages = ResourceBundle.getBundle("com.restaurant.messages", Locale.ENGLISH);
+        OrderHistory orderHistory = new OrderHistory(menu, messages);
+        long[] latencies = new long[Math.multiplyExact(tables, ordersPerTable)];
+        List<Future<Void>> tableRuns = new ArrayList<>(tables);
+
+        long start = System.nanoTime();
+        try (Kitchen kitchen = new Kitchen(RestaurantApp.KITCHEN_CHEFS, dish -> prepMillis);
+             ExecutorService diners = Executors.newVirtualThreadPerTaskExecutor()) {
+            kitchen.setLogging(false);
+            for (int t = 0; t < tables; t++) {
+                int tableIndex = t;
+                tableRuns.add(diners.submit(() -> {
+                    serveTable(tableIndex, ordersPerTable, menu, kitchen, orderHistory, messages, latencies);
+                    return null;
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        // A failed table leaves zero latencies behind, which would skew the percentiles, so the run fails instead.
+        for (Future<Void> tableRun : tableRuns) {
+            try {
+                tableRun.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("A table failed during the load test.", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while collecting load test results.", e);
+            }
+        }
+
+        Arrays.sort(latencies);
+        return new Result(tables, latencies.length, elapsed, percentile(latencies, 50), percentile(latencies, 99));
+    }
+
+    // Places a table's orders one at a time, recording how long each one took to be served.
+    private static void serveTable(int tableIndex, int ordersPerTable, Menu menu, Kitchen kitchen,
+                                   OrderHistory orderHistory, ResourceBundle messages, long[] latencies)
+            throws InvalidOrderException, IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Table table = new Table(tableIndex + 1, 2 + random.nextInt(7));
+        Waiter waiter = new Waiter(WAITER_NAMES.get(tableIndex % WAITER_NAMES.size()), tableIndex % 1000);
+
+        for (int n = 0; n < ordersPerTable; n++) {
+            Order order = new Order(table, waiter, menu, messages);
+            MenuSnapshot dishes = order.getMenuSnapshot();
+            int dishCount = 1 + random.nextInt(5);
+            for (int d = 0; d < dishCount; d++) {
+                order.addDish(dishes.getDish(random.nextInt(dishes.size())));
+            }
+
+            long placed = System.nanoTime();
+            kitchen.submit(order).join();
+            latencies[tableIndex * ordersPerTable + n] = System.nanoTime() - placed;
+            orderHistory.addOrder(order);
+        }
+    }
+
+    // Nearest-rank percentile of an already sorted array.
+    private static long percentile(long[] sorted, int percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+}
@@ -0,0 +1,147 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only view of a saved order history file that is memory-mapped instead of loaded.
+ * Opening the file only records where each order starts; an {@link Order} is decoded
+ * when it is accessed, and aggregate queries scan the mapped bytes directly. Files written by
+ * {@link OrderHistory#saveToFile(Path)} can be opened this way, and
+ * {@link OrderHistory#loadFromFile(Path)} reads them through it.
+ */
+public class MappedOrderHistory {
+
+    private final MappedByteBuffer data;
+    private final OrderCodec.Header header;
+    private final int[] offsets;
+    private final Menu menu;
+    private final ResourceBundle messages;
+    private final Map<Long, Table> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Receives the dish lines of one order during {@link #forEachOrderLines(OrderLines)}.
+     * The arrays are reused for the next order, so they must not be kept.
+     */
+    @FunctionalInterface
+    public interface OrderLines {
+
+        /**
+         * @param dishes     The ordered dishes; the first {@code lines} entries are valid.
+         * @param quantities Units of each dish.
+         * @param lines      Number of dish lines in the order.
+         */
+        void accept(Dish[] dishes, int[] quantities, int lines);
+    }
+
+    private MappedOrderHistory(MappedByteBuffer data, Menu menu, ResourceBundle messages) throws IOException {
+        this.data = data;
+        this.menu = menu;
+        this.messages = messages;
+
+        ByteBuffer cursor = data.duplicate();
+        this.header = OrderCodec.readHeader(cursor, menu);
+        this.offsets = new int[header.orderCount()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = cursor.position();
+            OrderCodec.skipOrder(cursor, header);
+        }
+    }
+
+    /**
+     * Maps a history file and indexes the position of every order in it.
+     *
+     * @param filePath The history file.
+     * @param menu     The menu to resolve dishes against.
+     * @param messages The resource bundle given to orders when they are decoded.
+     * @return The mapped history.
+     * @throws IOException If the file cannot be mapped or is not a valid history file.
+     */
+    public static MappedOrderHistory open(Path filePath, Menu menu, ResourceBundle messages) throws IOException {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("History file is too large to map: " + channel.size() + " bytes.");
+            }
+            // The mapping stays valid after the channel is closed.
+            return new MappedOrderHistory(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), menu, messages);
+        }
+    }
+
+    // Number of orders in the file.
+    public int size() {
+        return offsets.length;
+    }
+
+    /**
+     * Decodes one order from the mapped file.
+     *
+     * @param index The order's position in the file.
+     * @return A new Order object for that record.
+     * @throws IndexOutOfBoundsException If there is no order at that position.
+     */
+    public Order get(int index) {
+        ByteBuffer cursor = data.duplicate().position(offsets[index]);
+        try {
+            return OrderCodec.readOrder(cursor, header, menu, messages, tables);
+        } catch (IOException e) {
+            // The record was already walked when the file was indexed, so this means the file changed underneath us.
+            throw new IllegalStateException("Order " + index + " could not be decoded: " + e.getMessage(), e);
+        }
+    }
+
+    // A list view that decodes each order when it is read.
+    public List<Order> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Order get(int index) {
+                return MappedOrderHistory.this.get(index);
+            }
+
+            @Override
+            public int size() {
+                return offsets.length;
+            }
+        };
+    }
+
+    /**
+     * Visits the dish lines of every order, in file order, reading them straight from the mapped
+     * bytes without creating any Order objects.
+     *
+     * @param visitor Called once per order.
+     * @throws IllegalStateException If the file changed underneath the mapping.
+     */
+    public void forEachOrderLines(OrderLines visitor) {
+        Dish[] dishes = new Dish[8];
+        int[] quantities = new int[8];
+        ByteBuffer cursor = data.duplicate();
+        for (int offset : offsets) {
+            cursor.position(offset);
+            try {
+                int lines = OrderCodec.skipToLines(cursor, header);
+                if (lines > dishes.length) {
+                    dishes = new Dish[lines];
+                    quantities = new int[lines];
+                }
+                for (int i = 0; i < lines; i++) {
+                    dishes[i] = header.dishes()[OrderCodec.varint(cursor)];
+                    quantities[i] = OrderCodec.varint(cursor);
+                }
+                visitor.accept(dishes, quantities, lines);
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException e) {
+                throw new IllegalStateException("History file could not be scanned at byte " + cursor.position()
+                        + ": " + e.getMessage(), e);
+            }
+        }
+    }
+}
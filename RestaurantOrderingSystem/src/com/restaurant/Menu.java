@@ -1,66 +1,137 @@
 package com.restaurant;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * Represents the Brazilian and Irish restaurant's menu.
+ *
+ * The dishes are loaded from menu data (by default the bundled {@code menu_data.txt}) into an
+ * immutable {@link MenuSnapshot}. Reloading swaps in a new snapshot atomically; every lookup
+ * reads the current snapshot without taking a lock, and orders keep the snapshot they were
+ * taken against.
  */
 public class Menu {
 
-    private final List<Dish> dishes;
-    private final List<Dish> irishDishes; // List of Irish dishes for today's specials
-    private List<Dish> cachedSpecials; // Cache for today's specials
+    // Menu data bundled with the application, used when no data file is given.
+    private static final String DEFAULT_MENU_RESOURCE = "menu_data.txt";
+
+    private final AtomicReference<MenuSnapshot> current;
+    private final Path dataFile; // File the menu is reloaded from, or null for the bundled menu
+    private volatile MenuScreens screens;
+    private volatile DailySpecials dailySpecials;
+    private volatile DishSearchIndex searchIndex;
+    private volatile List<Consumer<MenuSnapshot>> reloadListeners;
 
     /**
-     * Constructor for initializing the menu.
+     * Constructor for initializing the menu from the bundled menu data.
      */
     public Menu() {
-        // Full menu
-        dishes = List.of(
-            new Dish("Pão de Queijo", 5.99, Dish.Category.APPETIZER),
-            new Dish("Salad", 6.99, Dish.Category.APPETIZER), // Adjusted price
-            new Dish("Bruschetta", 6.99, Dish.Category.APPETIZER),
-            new Dish("Fish Cake", 6.49, Dish.Category.APPETIZER),
-            new Dish("Colcannon", 7.99, Dish.Category.APPETIZER), // Adjusted price
-            new Dish("Boxty", 7.99, Dish.Category.APPETIZER),
-            new Dish("Feijoada", 14.99, Dish.Category.MAIN_COURSE),
-            new Dish("Churrasco", 15.99, Dish.Category.MAIN_COURSE),
-            new Dish("Irish Stew", 12.99, Dish.Category.MAIN_COURSE),
-            new Dish("Bacon and Cabbage", 13.99, Dish.Category.MAIN_COURSE),
-            new Dish("Pasta", 12.99, Dish.Category.MAIN_COURSE),
-            new Dish("Pizza", 10.99, Dish.Category.MAIN_COURSE), // Adjusted price
-            new Dish("Fish and Chips", 10.99, Dish.Category.MAIN_COURSE),
-            new Dish("Shepherd's Pie", 13.49, Dish.Category.MAIN_COURSE),
-            new Dish("Irish Full Breakfast", 14.99, Dish.Category.MAIN_COURSE),
-            new Dish("Tea", 2.49, Dish.Category.BEVERAGE),
-            new Dish("Coffee", 2.99, Dish.Category.BEVERAGE),
-            new Dish("Latte", 3.99, Dish.Category.BEVERAGE),
-            new Dish("Orange Juice", 3.49, Dish.Category.BEVERAGE),
-            new Dish("Apple Juice", 3.99, Dish.Category.BEVERAGE),
-            new Dish("Pineapple Juice", 3.99, Dish.Category.BEVERAGE), // Adjusted price
-            new Dish("Apple Tart", 4.99, Dish.Category.DESSERT),
-            new Dish("Baileys Cheesecake", 5.49, Dish.Category.DESSERT),
-            new Dish("Irish Cream Brownie", 3.99, Dish.Category.DESSERT)
-        );
-
-        // Irish dishes only (use a mutable list to avoid UnsupportedOperationException)
-        irishDishes = new ArrayList<>(List.of(
-            new Dish("Irish Stew", 12.99, Dish.Category.MAIN_COURSE),
-            new Dish("Bacon and Cabbage", 13.99, Dish.Category.MAIN_COURSE),
-            new Dish("Colcannon", 7.99, Dish.Category.APPETIZER), // Adjusted price
-            new Dish("Fish and Chips", 10.99, Dish.Category.MAIN_COURSE),
-            new Dish("Baileys Cheesecake", 5.49, Dish.Category.DESSERT),
-            new Dish("Irish Cream Brownie", 3.99, Dish.Category.DESSERT),
-            new Dish("Tea", 2.49, Dish.Category.BEVERAGE),
-            new Dish("Boxty", 7.99, Dish.Category.APPETIZER), // New Irish appetizer
-            new Dish("Shepherd's Pie", 13.49, Dish.Category.MAIN_COURSE), // New Irish main course
-            new Dish("Irish Full Breakfast", 14.99, Dish.Category.MAIN_COURSE), // New Irish main course
-            new Dish("Salad", 6.99, Dish.Category.APPETIZER), // Adjusted price
-            new Dish("Pizza", 10.99, Dish.Category.MAIN_COURSE), // Adjusted price
-            new Dish("Pineapple Juice", 3.99, Dish.Category.BEVERAGE) // Adjusted price
-        ));
-
-        cachedSpecials = null; // Initialize the cache
+        try (InputStream in = Menu.class.getResourceAsStream(DEFAULT_MENU_RESOURCE)) {
+            if (in == null) {
+                throw new IllegalStateException("Bundled menu data " + DEFAULT_MENU_RESOURCE + " is missing.");
+            }
+            current = new AtomicReference<>(read(in, 1));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Bundled menu data is invalid: " + e.getMessage(), e);
+        }
+        dataFile = null;
+    }
+
+    /**
+     * Creates a menu loaded from a data file, which {@link #reload()} reads again.
+     *
+     * @param dataFile The menu data, one dish per line as {@code name|price|category|flags}.
+     * @throws IOException If the file cannot be read or is not valid menu data.
+     */
+    public Menu(Path dataFile) throws IOException {
+        this.dataFile = dataFile;
+        try (InputStream in = Files.newInputStream(dataFile)) {
+            current = new AtomicReference<>(read(in, 1));
+        }
+    }
+
+    private static MenuSnapshot read(InputStream in, long version) throws IOException {
+        return MenuSnapshot.read(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), version);
+    }
+
+    // The current version of the menu. It never changes; later versions are new snapshots.
+    public MenuSnapshot snapshot() {
+        return current.get();
+    }
+
+    // The data file the menu is reloaded from, or null if it uses the bundled menu.
+    public Path getDataFile() {
+        return dataFile;
+    }
+
+    /**
+     * Reads the data file again and swaps the new dishes in. If the file is not valid menu
+     * data the current menu stays in place.
+     *
+     * @return The new snapshot.
+     * @throws IOException If the file cannot be read or is not valid menu data.
+     * @throws IllegalStateException If the menu was not loaded from a file.
+     */
+    public MenuSnapshot reload() throws IOException {
+        if (dataFile == null) {
+            throw new IllegalStateException("The bundled menu cannot be reloaded.");
+        }
+        MenuSnapshot loaded;
+        try (InputStream in = Files.newInputStream(dataFile)) {
+            loaded = read(in, 0);
+        }
+        MenuSnapshot next = replace(loaded);
+        for (Consumer<MenuSnapshot> listener : reloadListeners()) {
+            listener.accept(next);
+        }
+        return next;
+    }
+
+    /**
+     * Registers a listener told about every successful reload, e.g. to rebuild data keyed by
+     * dish id. It runs on the thread that reloaded the menu.
+     *
+     * @param listener Receives the new snapshot.
+     */
+    public void addReloadListener(Consumer<MenuSnapshot> listener) {
+        reloadListeners().add(Objects.requireNonNull(listener, "listener"));
+    }
+
+    private List<Consumer<MenuSnapshot>> reloadListeners() {
+        List<Consumer<MenuSnapshot>> listeners = reloadListeners;
+        if (listeners == null) {
+            synchronized (this) {
+                listeners = reloadListeners;
+                if (listeners == null) {
+                    listeners = new CopyOnWriteArrayList<>();
+                    reloadListeners = listeners;
+                }
+            }
+        }
+        return listeners;
+    }
+
+    // Makes the given dishes the current menu, as the next version.
+    MenuSnapshot replace(MenuSnapshot loaded) {
+        MenuSnapshot previous;
+        MenuSnapshot next;
+        do {
+            previous = current.get();
+            next = loaded.withVersion(previous.version() + 1);
+        } while (!current.compareAndSet(previous, next));
+        return next;
     }
 
     /**
@@ -69,53 +140,94 @@ public class Menu {
     // Displays the menu categorized by dish type.
     // Each category is displayed in a specific order.
     public void displayMenuByCategory(ResourceBundle messages) {
-        Map<Dish.Category, List<Dish>> categorizedMenu = new LinkedHashMap<>();
-        for (Dish.Category category : Dish.Category.values()) {
-            categorizedMenu.put(category, new ArrayList<>());
-        }
+        MenuSnapshot snapshot = current.get();
+        System.out.print(screens().get(MenuScreens.Screen.BY_CATEGORY, messages, 0, 0, snapshot.version(),
+            () -> new MenuView(snapshot, messages)));
+    }
 
-        for (Dish dish : dishes) {
-            categorizedMenu.get(dish.category()).add(dish);
-        }
+    // Displays every dish of a snapshot with the number that selects it while taking an order.
+    public void displayOrderPicker(MenuSnapshot snapshot, ResourceBundle messages) {
+        System.out.print(screens().get(MenuScreens.Screen.ORDER_PICKER, messages, 0, 0, snapshot.version(),
+            () -> new MenuView(snapshot, messages, MenuView.Layout.NUMBERED)));
+    }
 
-        if (categorizedMenu.isEmpty()) {
-            System.out.println(messages.getString("menu_empty"));
-            return;
-        }
+    /**
+     * Displays today's specials, which are chosen from Irish dishes.
+     * The specials are the same for everyone all day and change at midnight.
+     */
+    // Displays today's specials, which are selected from Irish dishes by date.
+    public void displayDailySpecials(int limit, ResourceBundle messages) {
+        MenuSnapshot snapshot = current.get();
+        DailySpecials rotation = dailySpecials();
+        // The date is read once, so specials picked just before midnight are not cached under the next day.
+        LocalDate day = rotation.today();
+        List<Dish> specials = rotation.forDay(snapshot, day, limit);
+        System.out.print(screens().get(MenuScreens.Screen.DAILY_SPECIALS, messages, limit,
+            day.toEpochDay(), snapshot.version(), () -> new SpecialsView(specials, messages)));
+    }
+
+    // Today's specials from the current menu.
+    public List<Dish> getDailySpecials(int limit) {
+        return dailySpecials().today(current.get(), limit);
+    }
 
-        System.out.println("\n" + "=".repeat(40));
-        System.out.println(" " + messages.getString("menu"));
-        System.out.println("=".repeat(40));
+    /**
+     * Sets the rotation today's specials come from, e.g. one with another seed or clock.
+     *
+     * @param rotation The specials engine to use.
+     */
+    public void setDailySpecials(DailySpecials rotation) {
+        this.dailySpecials = Objects.requireNonNull(rotation, "rotation");
+    }
 
-        for (Dish.Category category : Dish.Category.values()) {
-            if (categorizedMenu.get(category).isEmpty()) continue;
-            System.out.println("\n" + messages.getString(category.name()));
-            System.out.println("-".repeat(40));
-            for (Dish dish : categorizedMenu.get(category)) {
-                System.out.printf(messages.getString("menu_item_format") + "%n", dish.name(), dish.price());
+    private DailySpecials dailySpecials() {
+        DailySpecials rotation = dailySpecials;
+        if (rotation == null) {
+            synchronized (this) {
+                rotation = dailySpecials;
+                if (rotation == null) {
+                    rotation = new DailySpecials();
+                    dailySpecials = rotation;
+                }
             }
         }
+        return rotation;
+    }
 
-        System.out.println("=".repeat(40));
+    // The current version of the dishes; it changes whenever the menu is reloaded.
+    public long getVersion() {
+        return current.get().version();
     }
 
     /**
-     * Displays today's specials, which are chosen randomly from Irish dishes.
-     * The specials remain the same throughout the session.
+     * Gets the search index over a snapshot's dish names, building it on first use. The index for
+     * the latest snapshot is kept, so searching while taking orders does not rebuild it.
+     *
+     * @param snapshot The menu version to search.
+     * @param bundles  Message bundles whose localized dish names are searched as well.
+     * @return The index.
      */
-    // Displays today's specials, which are randomly selected from Irish dishes.
-    // The specials remain the same throughout the session.
-    public void displayDailySpecials(int limit, ResourceBundle messages) {
-        if (cachedSpecials == null) { // Check if specials are already cached
-            Collections.shuffle(irishDishes); // Shuffle the mutable list
-            cachedSpecials = new ArrayList<>(irishDishes.stream().limit(limit).toList());
+    public DishSearchIndex searchIndex(MenuSnapshot snapshot, List<ResourceBundle> bundles) {
+        DishSearchIndex index = searchIndex;
+        if (index == null || !index.covers(snapshot, bundles)) {
+            index = DishSearchIndex.build(snapshot, bundles);
+            searchIndex = index;
         }
+        return index;
+    }
 
-        System.out.println("\n========== " + messages.getString("todays_specials_header") + " ==========");
-        cachedSpecials.forEach(dish ->
-            System.out.printf(" - %-25s (€%.2f)%n", dish.name(), dish.price())
-        );
-        System.out.println("==========================================================");
+    private MenuScreens screens() {
+        MenuScreens cache = screens;
+        if (cache == null) {
+            synchronized (this) {
+                cache = screens;
+                if (cache == null) {
+                    cache = new MenuScreens();
+                    screens = cache;
+                }
+            }
+        }
+        return cache;
     }
 
     /**
@@ -126,12 +238,67 @@ public class Menu {
      */
     // Checks if a specific dish is available in the menu.
     public boolean isDishAvailable(Dish dish) {
-        return dishes.contains(dish);
+        return current.get().isDishAvailable(dish);
     }
 
     // Retrieves all dishes in the menu as an unmodifiable list.
     public List<Dish> getAllDishes() {
-        return Collections.unmodifiableList(dishes);
+        return current.get().getAllDishes();
+    }
+
+    // Number of dishes on the menu; valid dish ids run from 0 to size() - 1.
+    public int size() {
+        return current.get().size();
+    }
+
+    /**
+     * Finds the id of the dish named by a region of text in the current menu.
+     * Ids are only stable within a snapshot; use {@link #snapshot()} to look up several things at once.
+     *
+     * @see MenuSnapshot#findDishId(CharSequence, int, int)
+     */
+    public int findDishId(CharSequence text, int start, int end) {
+        return current.get().findDishId(text, start, end);
+    }
+
+    /**
+     * Gets the id of a dish on the current menu.
+     *
+     * @param dish The dish to look up.
+     * @return The dish's id, or -1 if the dish is not on the menu.
+     */
+    public int idOf(Dish dish) {
+        return current.get().idOf(dish);
+    }
+
+    /**
+     * Gets a dish of the current menu by its id.
+     *
+     * @param id The dish id, as returned by {@link #idOf(Dish)}.
+     * @return The dish with that id.
+     * @throws IndexOutOfBoundsException If no dish has that id.
+     */
+    public Dish getDish(int id) {
+        return current.get().getDish(id);
+    }
+
+    // Retrieves the dishes of one category, in menu order.
+    public List<Dish> getDishesByCategory(Dish.Category category) {
+        return current.get().getDishesByCategory(category);
+    }
+
+    /**
+     * Finds the dishes of a category that have all of some attributes and none of others.
+     *
+     * @param category The category, or null for any category.
+     * @param with     Attributes the dishes must all have.
+     * @param without  Attributes the dishes must not have.
+     * @return The matching dishes, in menu order.
+     * @see MenuSnapshot#filter(Dish.Category, Set, Set)
+     */
+    public List<Dish> findDishes(Dish.Category category, Set<Dish.Attribute> with, Set<Dish.Attribute> without) {
+        MenuSnapshot snapshot = current.get();
+        return snapshot.getDishes(snapshot.filter(category, with, without));
     }
 
     /**
@@ -143,8 +310,6 @@ public class Menu {
     // Finds a dish by its name.
     // Returns an Optional containing the dish if found.
     public Optional<Dish> findDishByName(String name) {
-        return dishes.stream()
-                     .filter(dish -> dish.name().equalsIgnoreCase(name))
-                     .findFirst();
+        return current.get().findDishByName(name);
     }
 }
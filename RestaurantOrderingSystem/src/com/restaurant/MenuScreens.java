@@ -0,0 +1,71 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Rendered menu screens, kept per language and menu version.
+ *
+ * The menu rarely changes, so each screen is rendered once per resource bundle (that is, per
+ * locale) and then shown with a single write. Every change to the menu bumps its version; the
+ * first request after that drops all cached screens. The specials screen is also keyed by day,
+ * since the specials change at midnight.
+ */
+final class MenuScreens {
+
+    /**
+     * The screens that are cached.
+     */
+    enum Screen {
+        BY_CATEGORY,
+        ORDER_PICKER,
+        DAILY_SPECIALS
+    }
+
+    // Screens differing only in their limit (e.g. number of specials) or day are cached separately.
+    private record Key(Screen screen, ResourceBundle messages, int limit, long epochDay) {
+    }
+
+    // The screens rendered for one menu version; swapped whole when the version moves on.
+    private record Generation(long version, Map<Key, String> screens) {
+    }
+
+    private volatile Generation generation = new Generation(-1, new ConcurrentHashMap<>());
+
+    /**
+     * Gets a rendered screen, rendering and caching it if needed.
+     *
+     * @param screen      Which screen.
+     * @param messages    The bundle the screen is shown in.
+     * @param limit       The screen's size limit, or 0 if it has none.
+     * @param epochDay    The day the screen is for, or 0 if it is the same every day.
+     * @param menuVersion The menu's current version.
+     * @param view        Creates the view to render on a cache miss.
+     * @return The screen's text.
+     */
+    String get(Screen screen, ResourceBundle messages, int limit, long epochDay, long menuVersion,
+               Supplier<Printable> view) {
+        Generation current = generation;
+        if (current.version() != menuVersion) {
+            current = new Generation(menuVersion, new ConcurrentHashMap<>());
+            generation = current;
+        }
+        return current.screens().computeIfAbsent(new Key(screen, messages, limit, epochDay), key -> render(view.get()));
+    }
+
+    private static String render(Printable view) {
+        StringBuilder sb = RenderBuffer.acquire();
+        try {
+            view.renderTo(sb);
+            return sb.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A StringBuilder never throws
+        } finally {
+            RenderBuffer.release(sb);
+        }
+    }
+}
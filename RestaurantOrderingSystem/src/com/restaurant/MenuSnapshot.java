@@ -0,0 +1,346 @@
+package com.restaurant;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * One immutable version of the menu: its dishes and the lookup indexes over them.
+ *
+ * A {@link Menu} always points at its current snapshot and swaps in a new one when the menu
+ * file changes; nothing in a snapshot ever changes. An order keeps
+ * the snapshot it was priced against, so a dish's id and price stay valid for the order's
+ * whole life even if the menu is reloaded meanwhile.
+ */
+public final class MenuSnapshot {
+
+    // Flag in the menu data marking a dish as a candidate for today's specials.
+    private static final String IRISH_FLAG = "irish";
+
+    private final long version;
+    private final List<Dish> dishes;
+    private final List<Dish> irishDishes; // Candidates for today's specials
+
+    // Lookup indexes built once per snapshot. A dish's id is its position in the menu.
+    private final Dish[] dishesById;
+    // Open-addressing table from case-insensitive dish name to id + 1 (0 marks an empty slot),
+    // so names can be looked up straight from a region of a CharSequence.
+    private final int[] nameSlots;
+    private final Map<Dish.Category, Dish[]> dishesByCategory;
+    // Dish id sets for filtering: every dish, the dishes of each category and those with each attribute.
+    private final BitSet allIds;
+    private final BitSet[] idsByCategory;
+    private final BitSet[] idsByAttribute;
+
+    /**
+     * Creates a snapshot of the given dishes.
+     *
+     * @param version     The snapshot's version; later snapshots of the same menu have higher versions.
+     * @param dishes      The dishes, in menu order.
+     * @param irishDishes The dishes today's specials are picked from; each must also be in {@code dishes}.
+     */
+    MenuSnapshot(long version, List<Dish> dishes, List<Dish> irishDishes) {
+        this.version = version;
+        this.dishes = List.copyOf(dishes);
+        this.irishDishes = List.copyOf(irishDishes);
+
+        dishesById = this.dishes.toArray(new Dish[0]);
+        nameSlots = new int[Math.max(16, Integer.highestOneBit(dishesById.length * 4 - 1))];
+        for (int id = 0; id < dishesById.length; id++) {
+            String name = dishesById[id].name().trim();
+            int slot = probe(name, 0, name.length());
+            if (nameSlots[slot] == 0) {
+                nameSlots[slot] = id + 1;
+            }
+        }
+
+        Map<Dish.Category, Dish[]> categories = new EnumMap<>(Dish.Category.class);
+        for (Dish.Category category : Dish.Category.values()) {
+            categories.put(category, this.dishes.stream().filter(dish -> dish.category() == category).toArray(Dish[]::new));
+        }
+        dishesByCategory = Collections.unmodifiableMap(categories);
+
+        allIds = new BitSet(dishesById.length);
+        allIds.set(0, dishesById.length);
+        idsByCategory = new BitSet[Dish.Category.values().length];
+        for (int i = 0; i < idsByCategory.length; i++) {
+            idsByCategory[i] = new BitSet(dishesById.length);
+        }
+        idsByAttribute = new BitSet[Dish.Attribute.values().length];
+        for (int i = 0; i < idsByAttribute.length; i++) {
+            idsByAttribute[i] = new BitSet(dishesById.length);
+        }
+        for (int id = 0; id < dishesById.length; id++) {
+            idsByCategory[dishesById[id].category().ordinal()].set(id);
+            for (Dish.Attribute attribute : dishesById[id].attributes()) {
+                idsByAttribute[attribute.ordinal()].set(id);
+            }
+        }
+    }
+
+    // A copy of a snapshot with another version, sharing its indexes.
+    private MenuSnapshot(MenuSnapshot base, long version) {
+        this.version = version;
+        this.dishes = base.dishes;
+        this.irishDishes = base.irishDishes;
+        this.dishesById = base.dishesById;
+        this.nameSlots = base.nameSlots;
+        this.dishesByCategory = base.dishesByCategory;
+        this.allIds = base.allIds;
+        this.idsByCategory = base.idsByCategory;
+        this.idsByAttribute = base.idsByAttribute;
+    }
+
+    /**
+     * Reads menu data: one dish per line as {@code name|price|category|flags}, where the flags
+     * are optional and comma-separated: "irish" or the flag of a {@link Dish.Attribute}. Blank
+     * lines and lines starting with '#' are skipped. Dishes are looked up by name, so no two may
+     * share a name, compared without case.
+     *
+     * @param in      The data to read.
+     * @param version The version of the new snapshot.
+     * @return The snapshot.
+     * @throws IOException If the data cannot be read or a line is not a valid dish.
+     */
+    static MenuSnapshot read(BufferedReader in, long version) throws IOException {
+        List<Dish> dishes = new ArrayList<>();
+        List<Dish> irishDishes = new ArrayList<>();
+        Map<String, Integer> nameLines = new HashMap<>(); // Line each name was first seen on, by nameKey
+        String line;
+        int lineNumber = 0;
+        while ((line = in.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.strip();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                continue;
+            }
+            String[] fields = trimmed.split("\\|", -1);
+            if (fields.length < 3 || fields.length > 4) {
+                throw new IOException("Line " + lineNumber + ": expected name|price|category|flags.");
+            }
+            String name = fields[0].strip();
+            if (name.isEmpty()) {
+                throw new IOException("Line " + lineNumber + ": dish name cannot be empty.");
+            }
+            Integer firstLine = nameLines.putIfAbsent(nameKey(name), lineNumber);
+            if (firstLine != null) {
+                throw new IOException("Line " + lineNumber + ": dish \"" + name + "\" is already on the menu at line "
+                        + firstLine + ".");
+            }
+            double price;
+            Dish.Category category;
+            try {
+                price = Double.parseDouble(fields[1].strip());
+                category = Dish.Category.valueOf(fields[2].strip().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Line " + lineNumber + ": invalid price or category.", e);
+            }
+            if (!(price >= 0) || Double.isInfinite(price)) {
+                throw new IOException("Line " + lineNumber + ": price must be a non-negative number.");
+            }
+
+            boolean irish = false;
+            Set<Dish.Attribute> attributes = EnumSet.noneOf(Dish.Attribute.class);
+            if (fields.length == 4) {
+                for (String flag : fields[3].split(",")) {
+                    String trimmedFlag = flag.strip();
+                    Dish.Attribute attribute = Dish.Attribute.fromFlag(trimmedFlag);
+                    if (trimmedFlag.equalsIgnoreCase(IRISH_FLAG)) {
+                        irish = true;
+                    } else if (attribute != null) {
+                        attributes.add(attribute);
+                    } else if (!trimmedFlag.isEmpty()) {
+                        throw new IOException("Line " + lineNumber + ": unknown flag \"" + trimmedFlag + "\".");
+                    }
+                }
+            }
+            if (attributes.contains(Dish.Attribute.VEGAN)) {
+                attributes.add(Dish.Attribute.VEGETARIAN); // Vegan dishes are vegetarian whether or not the line says so
+            }
+            Dish dish = new Dish(name, price, category, attributes);
+            dishes.add(dish);
+            if (irish) {
+                irishDishes.add(dish);
+            }
+        }
+        return new MenuSnapshot(version, dishes, irishDishes);
+    }
+
+    // The same dishes under a new version.
+    MenuSnapshot withVersion(long newVersion) {
+        return new MenuSnapshot(this, newVersion);
+    }
+
+    // The snapshot's version; it is higher for every later change to the menu.
+    public long version() {
+        return version;
+    }
+
+    // The dishes today's specials are picked from.
+    public List<Dish> getIrishDishes() {
+        return irishDishes;
+    }
+
+    /**
+     * Finds the id of the dish named by a region of text, ignoring case and surrounding whitespace.
+     * Nothing is allocated, so order lines can be resolved without cutting them into strings.
+     *
+     * @param text  The text holding the name.
+     * @param start Index of the first character of the name.
+     * @param end   Index after the last character of the name.
+     * @return The dish id, or -1 if no dish has that name.
+     */
+    public int findDishId(CharSequence text, int start, int end) {
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        return nameSlots[probe(text, start, end)] - 1;
+    }
+
+    // Slot holding the given (already trimmed) name, or the empty slot where it would go.
+    private int probe(CharSequence text, int start, int end) {
+        int mask = nameSlots.length - 1;
+        int slot = nameHash(text, start, end) & mask;
+        while (nameSlots[slot] != 0 && !nameEquals(dishesById[nameSlots[slot] - 1].name(), text, start, end)) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    // Names are matched case-insensitively, independent of the default locale.
+    private static int nameHash(CharSequence text, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + Character.toLowerCase(text.charAt(i));
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    // A name folded the way nameEquals compares it.
+    private static String nameKey(String name) {
+        StringBuilder key = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            key.append(Character.toLowerCase(name.charAt(i)));
+        }
+        return key.toString();
+    }
+
+    private static boolean nameEquals(String name, CharSequence text, int start, int end) {
+        int nameStart = 0;
+        int nameEnd = name.length();
+        while (nameStart < nameEnd && name.charAt(nameStart) <= ' ') nameStart++;
+        while (nameEnd > nameStart && name.charAt(nameEnd - 1) <= ' ') nameEnd--;
+        if (nameEnd - nameStart != end - start) {
+            return false;
+        }
+        for (int i = 0; i < end - start; i++) {
+            if (Character.toLowerCase(name.charAt(nameStart + i)) != Character.toLowerCase(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Checks if a specific dish is on this version of the menu.
+    public boolean isDishAvailable(Dish dish) {
+        return idOf(dish) >= 0;
+    }
+
+    // Retrieves all dishes as an unmodifiable list, in menu order.
+    public List<Dish> getAllDishes() {
+        return dishes;
+    }
+
+    // Number of dishes; valid dish ids run from 0 to size() - 1.
+    public int size() {
+        return dishesById.length;
+    }
+
+    /**
+     * Gets the id of a dish in this snapshot.
+     *
+     * @param dish The dish to look up.
+     * @return The dish's id, or -1 if the dish is not on this version of the menu.
+     */
+    public int idOf(Dish dish) {
+        if (dish == null) {
+            return -1;
+        }
+        String name = dish.name();
+        int id = findDishId(name, 0, name.length());
+        if (id < 0) {
+            return -1;
+        }
+        Dish candidate = dishesById[id];
+        return candidate == dish || candidate.equals(dish) ? id : -1;
+    }
+
+    /**
+     * Gets a dish by its id.
+     *
+     * @param id The dish id, as returned by {@link #idOf(Dish)}.
+     * @return The dish with that id.
+     * @throws IndexOutOfBoundsException If no dish has that id.
+     */
+    public Dish getDish(int id) {
+        return dishesById[id];
+    }
+
+    // Retrieves the dishes of one category, in menu order.
+    public List<Dish> getDishesByCategory(Dish.Category category) {
+        return List.of(dishesByCategory.get(category));
+    }
+
+    /**
+     * Finds the dishes of a category that have all of some attributes and none of others, e.g.
+     * vegetarian desserts without nuts. The answer is combined from precomputed id sets a word of
+     * 64 dishes at a time, without looking at the dishes themselves.
+     *
+     * @param category The category, or null for any category.
+     * @param with     Attributes the dishes must all have.
+     * @param without  Attributes the dishes must not have.
+     * @return The ids of the matching dishes; the caller may modify the set.
+     */
+    public BitSet filter(Dish.Category category, Set<Dish.Attribute> with, Set<Dish.Attribute> without) {
+        BitSet ids = (BitSet) (category == null ? allIds : idsByCategory[category.ordinal()]).clone();
+        for (Dish.Attribute attribute : with) {
+            ids.and(idsByAttribute[attribute.ordinal()]);
+        }
+        for (Dish.Attribute attribute : without) {
+            ids.andNot(idsByAttribute[attribute.ordinal()]);
+        }
+        return ids;
+    }
+
+    // The ids of the dishes with an attribute.
+    public BitSet filter(Dish.Attribute attribute) {
+        return filter(null, EnumSet.of(attribute), Set.of());
+    }
+
+    // The dishes with the given ids, in menu order.
+    public List<Dish> getDishes(BitSet ids) {
+        List<Dish> selected = new ArrayList<>(ids.cardinality());
+        for (int id = ids.nextSetBit(0); id >= 0 && id < dishesById.length; id = ids.nextSetBit(id + 1)) {
+            selected.add(dishesById[id]);
+        }
+        return selected;
+    }
+
+    // Finds a dish by its name, ignoring case and surrounding whitespace.
+    public Optional<Dish> findDishByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        int id = findDishId(name, 0, name.length());
+        return id < 0 ? Optional.empty() : Optional.of(dishesById[id]);
+    }
+}
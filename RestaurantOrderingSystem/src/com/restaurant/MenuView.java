@@ -0,0 +1,87 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.ResourceBundle;
+
+/**
+ * The menu in the language of a resource bundle, either grouped by dish category or as the
+ * numbered list dishes are picked from while taking an order.
+ */
+public class MenuView implements Printable {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final MessageCatalog.Template PICKER_TITLE = MessageCatalog.compile("%25s%n");
+    private static final MessageCatalog.Template PICKER_LINE = MessageCatalog.compile("%-3d %-30s (€ %.2f)%n");
+
+    /**
+     * How the dishes are laid out.
+     */
+    public enum Layout {
+        BY_CATEGORY, // Dishes under a heading per category
+        NUMBERED     // Every dish with the number that selects it, in menu order
+    }
+
+    private final MenuSnapshot menu;
+    private final ResourceBundle messages;
+    private final Layout layout;
+
+    // Creates the by-category view of the menu as it is now.
+    public MenuView(Menu menu, ResourceBundle messages) {
+        this(menu.snapshot(), messages, Layout.BY_CATEGORY);
+    }
+
+    // Creates the by-category view of one version of the menu.
+    public MenuView(MenuSnapshot menu, ResourceBundle messages) {
+        this(menu, messages, Layout.BY_CATEGORY);
+    }
+
+    public MenuView(MenuSnapshot menu, ResourceBundle messages, Layout layout) {
+        this.menu = menu;
+        this.messages = messages;
+        this.layout = layout;
+    }
+
+    @Override
+    public void renderTo(Appendable out) throws IOException {
+        RenderBuffer.appendTo(out, layout == Layout.NUMBERED ? this::appendNumbered : this::appendByCategory);
+    }
+
+    private void appendByCategory(StringBuilder sb) {
+        MessageCatalog catalog = MessageCatalog.of(messages);
+        if (menu.size() == 0) {
+            sb.append(catalog.text("menu_empty")).append(LINE_SEPARATOR);
+            return;
+        }
+
+        sb.append('\n').append("=".repeat(40)).append(LINE_SEPARATOR);
+        sb.append(' ').append(catalog.text("menu")).append(LINE_SEPARATOR);
+        sb.append("=".repeat(40)).append(LINE_SEPARATOR);
+
+        MessageCatalog.Template item = catalog.template("menu_item_format");
+        for (Dish.Category category : Dish.Category.values()) {
+            List<Dish> categoryDishes = menu.getDishesByCategory(category);
+            if (categoryDishes.isEmpty()) continue;
+            sb.append('\n').append(catalog.text(category.name())).append(LINE_SEPARATOR);
+            sb.append("-".repeat(40)).append(LINE_SEPARATOR);
+            for (Dish dish : categoryDishes) {
+                item.appendTo(sb, dish.name(), dish.price()).append(LINE_SEPARATOR);
+            }
+        }
+
+        sb.append("=".repeat(40)).append(LINE_SEPARATOR);
+    }
+
+    private void appendNumbered(StringBuilder sb) {
+        List<Dish> allDishes = menu.getAllDishes();
+        sb.append('\n').append("=".repeat(50)).append(LINE_SEPARATOR);
+        PICKER_TITLE.appendTo(sb, messages.getString("menu"));
+        sb.append("=".repeat(50)).append(LINE_SEPARATOR);
+        for (int i = 0; i < allDishes.size(); i++) {
+            Dish dish = allDishes.get(i);
+            PICKER_LINE.appendTo(sb, i + 1, dish.name(), dish.price());
+        }
+        sb.append("=".repeat(50)).append(LINE_SEPARATOR);
+    }
+}
@@ -0,0 +1,102 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads a file-backed {@link Menu} whenever its data file changes.
+ *
+ * A daemon thread watches the file's directory and, once a burst of change events has settled,
+ * reloads the menu. A file that fails to load leaves the current menu in place, so a half-saved
+ * or mistyped edit never takes the menu away.
+ */
+public final class MenuWatcher implements AutoCloseable {
+
+    // Editors often write a file in several steps; wait this long after the last event before reading it.
+    private static final long SETTLE_MILLIS = 200;
+
+    private final Menu menu;
+    private final Path fileName;
+    private final WatchService watchService;
+    private final Thread thread;
+
+    private MenuWatcher(Menu menu, Path dataFile) throws IOException {
+        this.menu = menu;
+        Path absolute = dataFile.toAbsolutePath();
+        this.fileName = absolute.getFileName();
+        this.watchService = absolute.getFileSystem().newWatchService();
+        absolute.getParent().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        this.thread = new Thread(this::watch, "menu-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Starts watching a menu's data file.
+     *
+     * @param menu A menu loaded from a file.
+     * @return The running watcher; close it to stop watching.
+     * @throws IOException If the file's directory cannot be watched.
+     * @throws IllegalArgumentException If the menu was not loaded from a file.
+     */
+    public static MenuWatcher start(Menu menu) throws IOException {
+        if (menu.getDataFile() == null) {
+            throw new IllegalArgumentException("Only a menu loaded from a file can be watched.");
+        }
+        MenuWatcher watcher = new MenuWatcher(menu, menu.getDataFile());
+        watcher.thread.start();
+        return watcher;
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                boolean changed = affectsMenu(watchService.take());
+                // Collect the rest of the burst before reading the file.
+                WatchKey key;
+                while ((key = watchService.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= affectsMenu(key);
+                }
+                if (changed) {
+                    reload();
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Closed; stop watching.
+        }
+    }
+
+    // Consumes a key's events and tells whether any of them may concern the menu file.
+    private boolean affectsMenu(WatchKey key) {
+        boolean affects = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                affects = true;
+            }
+        }
+        key.reset();
+        return affects;
+    }
+
+    private void reload() {
+        try {
+            MenuSnapshot snapshot = menu.reload();
+            // Printed to stderr like failures, since it can arrive while the terminal is showing a prompt.
+            System.err.println("Menu reloaded: " + snapshot.size() + " dish(es), version " + snapshot.version() + ".");
+        } catch (IOException e) {
+            System.err.println("Failed to reload the menu, keeping the current one: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
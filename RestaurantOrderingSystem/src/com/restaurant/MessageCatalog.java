@@ -0,0 +1,383 @@
+package com.restaurant;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.util.ArrayList;
+import java.util.IllegalFormatConversionException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingFormatArgumentException;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Localized messages of one resource bundle, with each template parsed only once.
+ *
+ * A template such as {@code "Subtotal: €%.2f"} or {@code "Order for Table {tableNumber}"} is
+ * compiled the first time it is used into literal text and typed argument slots, and kept for
+ * the lifetime of the bundle. Rendering then only appends the arguments to a reusable
+ * {@link StringBuilder}: there is no format-string parsing, regex or {@link String#replace}
+ * per call.
+ *
+ * Compiled templates understand {@code %s}, {@code %d}, {@code %.Nf}, an optional {@code -} flag
+ * and width, {@code %%}, {@code %n} and {@code {name}} placeholders (which take the next argument
+ * as text). Anything else, or a default locale that does not use ASCII digits, makes the template
+ * fall back to {@link String#format}, so output is always the same as formatting the text directly.
+ */
+public final class MessageCatalog {
+
+    private static final Map<ResourceBundle, MessageCatalog> CATALOGS = new ConcurrentHashMap<>();
+
+    // Per-thread builder for format(); replaced if a single message made it very large.
+    private static final int MAX_RETAINED_CHARS = 4096;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000};
+
+    private final ResourceBundle messages;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    private MessageCatalog(ResourceBundle messages) {
+        this.messages = messages;
+    }
+
+    /**
+     * The catalog of a bundle. Bundles are cached per locale by {@link ResourceBundle#getBundle},
+     * so each locale's templates are compiled once for the whole application.
+     *
+     * @param messages The bundle to read templates from.
+     * @return The bundle's catalog.
+     */
+    public static MessageCatalog of(ResourceBundle messages) {
+        return CATALOGS.computeIfAbsent(messages, MessageCatalog::new);
+    }
+
+    public Locale getLocale() {
+        return messages.getLocale();
+    }
+
+    // The plain text of a message, for messages that take no arguments.
+    public String text(String key) {
+        return messages.getString(key);
+    }
+
+    /**
+     * The compiled template of a message.
+     *
+     * @param key The message key.
+     * @return The template, compiled on first use.
+     * @throws java.util.MissingResourceException If the bundle has no such message.
+     */
+    public Template template(String key) {
+        Template template = templates.get(key);
+        if (template == null) {
+            template = templates.computeIfAbsent(key, k -> compile(messages.getString(k)));
+        }
+        return template;
+    }
+
+    // Formats a message with the given arguments.
+    public String format(String key, Object... args) {
+        return template(key).format(args);
+    }
+
+    // Appends a formatted message to a builder.
+    public StringBuilder appendTo(StringBuilder sb, String key, Object... args) {
+        return template(key).appendTo(sb, args);
+    }
+
+    /**
+     * Compiles a pattern that does not come from a bundle, such as a table row layout.
+     * Keep the result in a constant rather than compiling on every use.
+     *
+     * @param pattern The pattern, in the subset of {@link java.util.Formatter} syntax described above.
+     * @return The compiled template.
+     */
+    public static Template compile(String pattern) {
+        String format = positional(pattern);
+        DecimalFormatSymbols symbols = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        if (symbols.getZeroDigit() != '0') {
+            return Template.fallback(pattern, format);
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<Slot> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < format.length()) {
+            char c = format.charAt(i);
+            if (c == '%') {
+                i = parseSpecifier(format, i + 1, literal, literals, slots);
+                if (i < 0) {
+                    return Template.fallback(pattern, format);
+                }
+            } else {
+                literal.append(c);
+                i++;
+            }
+        }
+        literals.add(literal.toString());
+        return new Template(pattern, format, literals.toArray(new String[0]), slots.toArray(new Slot[0]),
+                symbols.getDecimalSeparator(), symbols.getMinusSign());
+    }
+
+    // Turns {name} placeholders into %s, so they take the next argument like any other slot.
+    private static String positional(String pattern) {
+        int open = pattern.indexOf('{');
+        if (open < 0) {
+            return pattern;
+        }
+        StringBuilder sb = new StringBuilder(pattern.length());
+        int from = 0;
+        while (open >= 0) {
+            int close = pattern.indexOf('}', open + 1);
+            if (close < 0) {
+                break;
+            }
+            if (close > open + 1 && isName(pattern, open + 1, close)) {
+                sb.append(pattern, from, open).append("%s");
+                from = close + 1;
+            }
+            open = pattern.indexOf('{', open + 1);
+        }
+        return sb.append(pattern, from, pattern.length()).toString();
+    }
+
+    // Parses the specifier after a '%'; returns the index after it, or -1 if it is not supported.
+    private static int parseSpecifier(String pattern, int i, StringBuilder literal, List<String> literals,
+                                      List<Slot> slots) {
+        boolean leftAlign = false;
+        int width = 0;
+        int precision = -1;
+        if (i < pattern.length() && pattern.charAt(i) == '-') {
+            leftAlign = true;
+            i++;
+        }
+        if (i < pattern.length() && pattern.charAt(i) == '0') {
+            return -1; // Zero padding
+        }
+        while (i < pattern.length() && isDigit(pattern.charAt(i))) {
+            width = width * 10 + (pattern.charAt(i++) - '0');
+        }
+        if (i < pattern.length() && pattern.charAt(i) == '.') {
+            i++;
+            precision = 0;
+            while (i < pattern.length() && isDigit(pattern.charAt(i))) {
+                precision = precision * 10 + (pattern.charAt(i++) - '0');
+            }
+        }
+        if (i >= pattern.length() || (leftAlign && width == 0)) {
+            return -1;
+        }
+        char conversion = pattern.charAt(i);
+        boolean plain = !leftAlign && width == 0 && precision < 0;
+        switch (conversion) {
+            case '%' -> {
+                if (!plain) {
+                    return -1;
+                }
+                literal.append('%');
+                return i + 1;
+            }
+            case 'n' -> {
+                if (!plain) {
+                    return -1;
+                }
+                literal.append(LINE_SEPARATOR);
+                return i + 1;
+            }
+            case 's', 'd', 'f' -> {
+                Kind kind = conversion == 's' ? Kind.TEXT : conversion == 'd' ? Kind.INTEGER : Kind.DECIMAL;
+                if (kind == Kind.INTEGER && precision >= 0
+                        || kind == Kind.DECIMAL && (precision < 0 || precision >= POWERS_OF_TEN.length)
+                        || kind == Kind.TEXT && precision >= 0) {
+                    return -1;
+                }
+                literals.add(literal.toString());
+                literal.setLength(0);
+                slots.add(new Slot(kind, leftAlign, width, precision));
+                return i + 1;
+            }
+            default -> {
+                return -1;
+            }
+        }
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isName(String pattern, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isJavaIdentifierPart(pattern.charAt(i)) && pattern.charAt(i) != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private enum Kind { TEXT, INTEGER, DECIMAL }
+
+    private record Slot(Kind kind, boolean leftAlign, int width, int precision) {
+    }
+
+    /**
+     * A message compiled into literal text and typed argument slots. Immutable and safe to share.
+     */
+    public static final class Template {
+
+        private final String pattern;
+        private final String format; // The pattern with {name} placeholders turned into %s
+        private final String[] literals; // literals[i] comes before slots[i]; one more literal than slots
+        private final Slot[] slots;
+        private final char decimalSeparator;
+        private final char minusSign;
+
+        private Template(String pattern, String format, String[] literals, Slot[] slots,
+                         char decimalSeparator, char minusSign) {
+            this.pattern = pattern;
+            this.format = format;
+            this.literals = literals;
+            this.slots = slots;
+            this.decimalSeparator = decimalSeparator;
+            this.minusSign = minusSign;
+        }
+
+        // A template that renders with String.format; literals == null marks it.
+        private static Template fallback(String pattern, String format) {
+            return new Template(pattern, format, null, null, '.', '-');
+        }
+
+        // Number of arguments the template takes.
+        public int slotCount() {
+            return slots == null ? -1 : slots.length;
+        }
+
+        /**
+         * Appends the message with its slots filled in.
+         *
+         * @param sb   The builder to append to.
+         * @param args One argument per slot, in order.
+         * @return The builder.
+         * @throws java.util.IllegalFormatException If an argument is missing or has the wrong type for its slot.
+         */
+        public StringBuilder appendTo(StringBuilder sb, Object... args) {
+            if (literals == null) {
+                return sb.append(String.format(format, args));
+            }
+            for (int i = 0; i < slots.length; i++) {
+                sb.append(literals[i]);
+                if (i >= args.length) {
+                    throw new MissingFormatArgumentException(format);
+                }
+                Slot slot = slots[i];
+                int start = sb.length();
+                appendArgument(sb, slot, args[i]);
+                pad(sb, start, slot);
+            }
+            return sb.append(literals[slots.length]);
+        }
+
+        // Formats the message into a per-thread builder and returns the text.
+        public String format(Object... args) {
+            StringBuilder sb = BUFFER.get();
+            sb.setLength(0);
+            String text = appendTo(sb, args).toString();
+            if (sb.capacity() > MAX_RETAINED_CHARS) {
+                BUFFER.set(new StringBuilder(256));
+            }
+            return text;
+        }
+
+        private void appendArgument(StringBuilder sb, Slot slot, Object arg) {
+            switch (slot.kind()) {
+                case TEXT -> sb.append(arg);
+                case INTEGER -> {
+                    if (arg instanceof Integer || arg instanceof Long || arg instanceof Short || arg instanceof Byte) {
+                        long value = ((Number) arg).longValue();
+                        if (value < 0) {
+                            sb.append(minusSign);
+                            // Long.MIN_VALUE has no positive counterpart; its digits are the same unsigned.
+                            sb.append(value == Long.MIN_VALUE ? Long.toUnsignedString(value) : Long.toString(-value));
+                        } else {
+                            sb.append(value);
+                        }
+                    } else if (arg == null) {
+                        sb.append("null");
+                    } else {
+                        throw new IllegalFormatConversionException('d', arg.getClass());
+                    }
+                }
+                case DECIMAL -> {
+                    if (arg instanceof Double || arg instanceof Float) {
+                        appendDecimal(sb, ((Number) arg).doubleValue(), slot.precision());
+                    } else if (arg instanceof BigDecimal decimal) {
+                        appendDecimal(sb, decimal.setScale(slot.precision(), RoundingMode.HALF_UP));
+                    } else if (arg == null) {
+                        sb.append("null");
+                    } else {
+                        throw new IllegalFormatConversionException('f', arg.getClass());
+                    }
+                }
+            }
+        }
+
+        // Rounds half up on the value's shortest decimal representation, as Formatter does.
+        private void appendDecimal(StringBuilder sb, double value, int precision) {
+            if (Double.isNaN(value) || Double.isInfinite(value)) {
+                sb.append(value > 0 ? "Infinity" : value < 0 ? "-Infinity" : "NaN");
+                return;
+            }
+            long scale = POWERS_OF_TEN[precision];
+            double scaled = Math.abs(value) * scale;
+            double fraction = scaled - Math.floor(scaled);
+            if (scaled >= 1e15 || Math.abs(fraction - 0.5) < 1e-6) {
+                // Too large for a long, or too close to a tie for binary arithmetic to round correctly.
+                appendDecimal(sb, new BigDecimal(Double.toString(value)).setScale(precision, RoundingMode.HALF_UP));
+                return;
+            }
+            long units = Math.round(scaled);
+            if (value < 0 || (value == 0 && 1 / value < 0)) {
+                sb.append(minusSign);
+            }
+            sb.append(units / scale);
+            if (precision > 0) {
+                sb.append(decimalSeparator);
+                String digits = Long.toString(units % scale);
+                for (int pad = digits.length(); pad < precision; pad++) {
+                    sb.append('0');
+                }
+                sb.append(digits);
+            }
+        }
+
+        private void appendDecimal(StringBuilder sb, BigDecimal value) {
+            String plain = value.toPlainString();
+            for (int i = 0; i < plain.length(); i++) {
+                char c = plain.charAt(i);
+                sb.append(c == '.' ? decimalSeparator : c == '-' ? minusSign : c);
+            }
+        }
+
+        private static void pad(StringBuilder sb, int start, Slot slot) {
+            int padding = slot.width() - (sb.length() - start);
+            if (padding <= 0) {
+                return;
+            }
+            if (slot.leftAlign()) {
+                sb.repeat(' ', padding);
+            } else {
+                sb.insert(start, " ".repeat(padding));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return pattern;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.restaurant;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money arithmetic on amounts held as a primitive {@code long} number of cents.
+ * Sums and quantities are exact; the only rounding happens when a percentage is taken,
+ * and it always rounds half up (away from zero) to the nearest cent.
+ */
+public final class Money {
+
+    // Discounts are carried in basis points (hundredths of a percent) so they stay integral too.
+    private static final long BASIS_POINTS_PER_UNIT = 10_000;
+
+    private Money() {
+    }
+
+    /**
+     * Converts a decimal amount such as 5.99 to cents, rounding half up.
+     * The decimal value is taken as written, so 1.005 becomes 101 cents.
+     *
+     * @param amount The amount in currency units.
+     * @return The amount in cents.
+     */
+    public static long ofDecimal(double amount) {
+        return BigDecimal.valueOf(amount).setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    // Converts cents to a double for display with "%.2f"; never use the result for further arithmetic.
+    public static double toDouble(long cents) {
+        return cents / 100.0;
+    }
+
+    // Converts a discount percentage such as 12.5 to basis points (1250).
+    public static long basisPoints(double percentage) {
+        return Math.round(percentage * 100);
+    }
+
+    /**
+     * Takes a percentage of an amount, rounding half up to the nearest cent.
+     *
+     * @param cents       The amount in cents.
+     * @param basisPoints The percentage in basis points (100 = 1%).
+     * @return The percentage of the amount, in cents.
+     */
+    public static long percentage(long cents, long basisPoints) {
+        long product = Math.multiplyExact(cents, basisPoints);
+        long half = BASIS_POINTS_PER_UNIT / 2;
+        return product >= 0
+                ? (product + half) / BASIS_POINTS_PER_UNIT
+                : -((-product + half) / BASIS_POINTS_PER_UNIT);
+    }
+
+    /**
+     * Applies a percentage discount to an amount.
+     *
+     * @param cents       The amount before the discount.
+     * @param basisPoints The discount in basis points (100 = 1%).
+     * @return The discounted amount in cents.
+     */
+    public static long applyDiscount(long cents, long basisPoints) {
+        return cents - percentage(cents, basisPoints);
+    }
+
+    // Price of several units of the same item.
+    public static long times(long cents, int quantity) {
+        return Math.multiplyExact(cents, quantity);
+    }
+
+    // Appends an amount as plain digits with two decimals, without creating intermediate strings.
+    public static StringBuilder appendTo(StringBuilder sb, long cents) {
+        if (cents < 0) {
+            sb.append('-');
+        }
+        long fraction = Math.abs(cents % 100);
+        sb.append(Math.abs(cents / 100)).append('.');
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        return sb.append(fraction);
+    }
+}
@@ -1,36 +1,83 @@
 package com.restaurant;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.ResourceBundle;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Collectors;
 
 /**
  * Represents an order placed in the restaurant.
  */
-public class Order implements Serializable {
+public class Order implements Serializable, Printable {
 
     private static final long serialVersionUID = 1L;
 
+    // Layout of the rendered order table, compiled once.
+    private static final String BORDER = "+-----+------------------------------+------------+----------+";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final MessageCatalog.Template TITLE_ROW = MessageCatalog.compile("| %-58s |%n");
+    private static final MessageCatalog.Template HEADER_ROW = MessageCatalog.compile("| %-3s | %-28s | %10s | %8s |%n");
+    private static final MessageCatalog.Template DISH_ROW = MessageCatalog.compile("| %-3d | %-28s | %10s | %8d |%n");
+    private static final MessageCatalog.Template PRICE = MessageCatalog.compile("€%.2f");
+    private static final MessageCatalog.Template REMOVED = MessageCatalog.compile("Removed: %s (€%.2f)%n");
+
     private final Table table;
     private final Waiter waiter;
-    private final List<Dish> dishes = new ArrayList<>();
-    private double finalPrice; // Final price after discount
+    // Neither menu is serialized: orders are saved through OrderCodec and the journal, which
+    // store dish names and resolve them against the menu when the order is read back.
+    private final transient Menu menu;
+    // The menu as it was when the order was taken; dish ids and prices come from it.
+    private final transient MenuSnapshot menuSnapshot;
+    // Line items as a quantity per menu dish id, with running totals kept as dishes are added.
+    private final int[] quantities;
+    private int totalQuantity;
+    private long subtotalCents;
+    private long finalPriceCents; // Final price after discount
     private double discountPercentage; // Discount applied
-    private OrderStatus status = OrderStatus.PLACED;
+    private volatile OrderStatus status = OrderStatus.PLACED; // Updated by kitchen stations
+    private Instant placedAt = Instant.now();
+    private transient StatusListener statusListener; // Guarded by this order's lock
     private final ResourceBundle messages;
 
+    /**
+     * Notified whenever an order's status changes, while the order's lock is held,
+     * so changes to the same order are seen in the order they happened.
+     */
+    interface StatusListener {
+        void statusChanged(Order order, OrderStatus from, OrderStatus to);
+    }
+
     public OrderStatus getStatus() {
         return status;
     }
     
-    public void setStatus(OrderStatus status) {
+    public synchronized void setStatus(OrderStatus status) {
+        OrderStatus previous = this.status;
         this.status = status;
+        if (statusListener != null && previous != status) {
+            statusListener.statusChanged(this, previous, status);
+        }
+    }
+
+    // Replaces the listener told about status changes; callers hold this order's lock to read the status consistently.
+    synchronized void setStatusListener(StatusListener statusListener) {
+        this.statusListener = statusListener;
+    }
+
+    // When the order was placed; orders restored from files keep their original time.
+    public Instant getPlacedAt() {
+        return placedAt;
+    }
+
+    public void setPlacedAt(Instant placedAt) {
+        this.placedAt = Objects.requireNonNull(placedAt, "placedAt");
     }
     
     /**
@@ -38,11 +85,15 @@ public class Order implements Serializable {
      * 
      * @param table  The table associated with the order.
      * @param waiter The waiter serving the order.
+     * @param menu   The menu the order is taken from.
      * @param messages The resource bundle for localized messages.
      */
-    public Order(Table table, Waiter waiter, ResourceBundle messages) {
+    public Order(Table table, Waiter waiter, Menu menu, ResourceBundle messages) {
         this.table = table;
         this.waiter = waiter;
+        this.menu = menu;
+        this.menuSnapshot = menu.snapshot();
+        this.quantities = new int[menuSnapshot.size()];
         this.messages = messages;
     }
 
@@ -54,43 +105,125 @@ public class Order implements Serializable {
         return waiter;
     }
 
+    public Menu getMenu() {
+        return menu;
+    }
+
+    // The version of the menu the order was taken and priced against.
+    public MenuSnapshot getMenuSnapshot() {
+        return menuSnapshot;
+    }
+
+    // Lists every unit ordered, in menu order (a dish ordered twice appears twice).
     public List<Dish> getDishes() {
+        List<Dish> dishes = new ArrayList<>(totalQuantity);
+        for (int id = 0; id < quantities.length; id++) {
+            for (int n = quantities[id]; n > 0; n--) {
+                dishes.add(menuSnapshot.getDish(id));
+            }
+        }
         return Collections.unmodifiableList(dishes);
     }
 
+    // Calls the action once per distinct dish with its quantity, in menu order.
+    public void forEachLine(ObjIntConsumer<Dish> action) {
+        for (int id = 0; id < quantities.length; id++) {
+            if (quantities[id] > 0) {
+                action.accept(menuSnapshot.getDish(id), quantities[id]);
+            }
+        }
+    }
+
+    // Number of units of the given dish in the order.
+    public int getQuantity(Dish dish) {
+        int id = menuSnapshot.idOf(dish);
+        return id < 0 ? 0 : quantities[id];
+    }
+
+    // Total number of units across all dishes.
+    public int getTotalQuantity() {
+        return totalQuantity;
+    }
+
+    // Number of distinct dishes in the order.
+    public int getLineCount() {
+        int lines = 0;
+        for (int quantity : quantities) {
+            if (quantity > 0) lines++;
+        }
+        return lines;
+    }
+
+    // Sum of the prices of all units in cents, before any discount.
+    public long getSubtotalCents() {
+        return subtotalCents;
+    }
+
     // Removes the restriction that prevents adding the same dish multiple times.
     public void addDish(Dish dish) throws InvalidOrderException {
+        addDish(dish, 1);
+    }
+
+    // Adds several units of the same dish at once.
+    public void addDish(Dish dish, int quantity) throws InvalidOrderException {
+        if (quantity < 0) {
+            throw new InvalidOrderException("Quantity cannot be negative.");
+        }
         if (dish == null) {
             throw new InvalidOrderException("Dish cannot be null.");
         }
-        dishes.add(dish);
+        int id = menuSnapshot.idOf(dish);
+        if (id < 0) {
+            throw new InvalidOrderException("Dish is not on the menu: " + dish.name());
+        }
+        quantities[id] += quantity;
+        totalQuantity += quantity;
+        subtotalCents += Money.times(dish.priceCents(), quantity);
     }
 
     // Removes a dish from the order.
     // Displays a message if the dish is not found.
     public void removeDish(Dish dish) {
-        if (dish == null || !dishes.contains(dish)) {
+        int id = menuSnapshot.idOf(dish);
+        if (id < 0 || quantities[id] == 0) {
             System.out.println("Dish not found in the order.");
             return;
         }
-        dishes.remove(dish);
-        System.out.printf("Removed: %s (€%.2f)%n", dish.name(), dish.price());
+        quantities[id]--;
+        totalQuantity--;
+        subtotalCents -= dish.priceCents();
+        System.out.print(REMOVED.format(dish.name(), dish.price()));
     }
 
     // Clears all dishes from the order.
     public void clearOrder() {
-        dishes.clear();
+        Arrays.fill(quantities, 0);
+        totalQuantity = 0;
+        subtotalCents = 0;
         System.out.println("Order has been cleared.");
     }
 
-    // Sets the final price of the order after applying discounts.
-    public void setFinalPrice(double finalPrice) {
-        this.finalPrice = finalPrice;
+    // Sets the final price of the order in cents after applying discounts.
+    public void setFinalPriceCents(long finalPriceCents) {
+        this.finalPriceCents = finalPriceCents;
+    }
+
+    // Retrieves the final price of the order in cents.
+    public long getFinalPriceCents() {
+        return finalPriceCents;
     }
 
-    // Retrieves the final price of the order.
-    public double getFinalPrice() {
-        return finalPrice;
+    /**
+     * Applies a percentage discount to the current subtotal and records the result as the final price.
+     * The discount amount is rounded half up to the nearest cent.
+     *
+     * @param discountPercentage The discount, e.g. 12.5 for 12.5%.
+     * @return The final price in cents.
+     */
+    public long applyDiscount(double discountPercentage) {
+        this.discountPercentage = discountPercentage;
+        this.finalPriceCents = Money.applyDiscount(subtotalCents, Money.basisPoints(discountPercentage));
+        return finalPriceCents;
     }
 
     public void setDiscountPercentage(double discountPercentage) {
@@ -101,36 +234,35 @@ public class Order implements Serializable {
         return discountPercentage;
     }
    
-    public void printDetails() {
-        Map<Dish, Long> dishCounts = dishes.stream()
-            .collect(Collectors.groupingBy(d -> d, Collectors.counting()));
-    
-        String localizedTitle = messages.getString("order_for_table").replace("{tableNumber}", String.valueOf(table.getTableNumber()));
-        String titleRow = String.format("| %-58s |", localizedTitle);
-        String border = "+-----+------------------------------+------------+----------+";
-        String header = String.format("| %-3s | %-28s | %10s | %8s |", "#", "Dish", "Price", "Quantity");
-    
-        // Print table
-        System.out.println(border);
-        System.out.println(titleRow);
-        System.out.println(border);
-        System.out.println(header);
-        System.out.println(border);
-    
+    @Override
+    public void renderTo(Appendable out) throws IOException {
+        RenderBuffer.appendTo(out, this::appendDetails);
+    }
+
+    // Appends the order as a table of its dishes and quantities.
+    private void appendDetails(StringBuilder sb) {
+        MessageCatalog catalog = MessageCatalog.of(messages);
+        sb.append(BORDER).append(LINE_SEPARATOR);
+        TITLE_ROW.appendTo(sb, catalog.format("order_for_table", table.getTableNumber()));
+        sb.append(BORDER).append(LINE_SEPARATOR);
+        HEADER_ROW.appendTo(sb, "#", "Dish", "Price", "Quantity");
+        sb.append(BORDER).append(LINE_SEPARATOR);
+
         int index = 1;
-        for (Map.Entry<Dish, Long> entry : dishCounts.entrySet()) {
-            Dish dish = entry.getKey();
-            long quantity = entry.getValue();
-            System.out.printf("| %-3d | %-28s | %10s | %8d |%n", index++, dish.name(), String.format("€%.2f", dish.price()), quantity);
+        for (int id = 0; id < quantities.length; id++) {
+            if (quantities[id] == 0) continue;
+            Dish dish = menuSnapshot.getDish(id);
+            DISH_ROW.appendTo(sb, index++, dish.name(), PRICE.format(dish.price()), quantities[id]);
         }
-    
-        System.out.println(border);
+
+        sb.append(BORDER).append(LINE_SEPARATOR);
     }
     
     
     /**
      * Parses a string representation of an Order and returns an Order object.
-     * Assumes the string is in the format: "TableNumber,WaiterName,WaiterId,Dish1,Dish2,..."
+     * Assumes the string is in the format: "TableNumber,WaiterName,WaiterId,Dish1,Dish2,...",
+     * optionally followed by the "|Status|Discount|FinalPrice|Capacity|PlacedAt" trailer that toString() writes.
      *
      * @param orderString The string representation of the order.
      * @param menu The menu instance to use for finding dishes.
@@ -138,60 +270,33 @@ public class Order implements Serializable {
      * @throws IllegalArgumentException If the string format is invalid.
      */
     public static Order parse(String orderString, Menu menu) {
-        if (orderString == null || orderString.isBlank()) {
-            throw new IllegalArgumentException("Order string cannot be null or empty.");
-        }
-        if (menu == null) {
-            throw new IllegalArgumentException("Menu cannot be null.");
-        }
-
-        String[] parts = orderString.split(",");
-        if (parts.length < 3) {
-            throw new IllegalArgumentException("Invalid order string format. Expected format: 'TableNumber,WaiterName,WaiterId,Dish1,Dish2,...'");
-        }
-
-        int tableNumber;
-        int waiterId;
-        try {
-            tableNumber = Integer.parseInt(parts[0].trim());
-            waiterId = Integer.parseInt(parts[2].trim());
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Table number and waiter ID must be valid integers.", e);
-        }
-
-        String waiterName = parts[1].trim();
-        if (waiterName.isEmpty()) {
-            throw new IllegalArgumentException("Waiter name cannot be empty.");
-        }
-
-        Table table = new Table(tableNumber, 4); // Replace with a lookup or configuration
-        Waiter waiter = new Waiter(waiterName, waiterId);
-        ResourceBundle messages = ResourceBundle.getBundle("com.restaurant.messages");
-        Order order = new Order(table, waiter, messages);
+        return parse(orderString, menu, ResourceBundle.getBundle("com.restaurant.messages"));
+    }
 
+    /**
+     * Parses a string representation of an Order using an already loaded resource bundle.
+     *
+     * @param orderString The string representation of the order.
+     * @param menu The menu instance to use for finding dishes.
+     * @param messages The resource bundle given to the parsed order.
+     * @return The parsed Order object.
+     * @throws IllegalArgumentException If the string format is invalid.
+     */
+    public static Order parse(String orderString, Menu menu, ResourceBundle messages) {
         List<String> failedDishes = new ArrayList<>();
-        Arrays.stream(parts, 3, parts.length)
-              .map(String::trim)
-              .filter(dishName -> !dishName.isEmpty())
-              .map(menu::findDishByName)
-              .forEach(optionalDish -> optionalDish.ifPresentOrElse(
-                  dish -> {
-                      try {
-                          order.addDish(dish);
-                      } catch (InvalidOrderException e) {
-                          failedDishes.add(dish.name());
-                      }
-                  },
-                  () -> failedDishes.add("Unknown Dish")
-              ));
-
+        Order order = new OrderParser(menu, messages).parse(orderString, failedDishes);
         if (!failedDishes.isEmpty()) {
             System.err.println("Failed to add the following dishes: " + String.join(", ", failedDishes));
         }
-
         return order;
     }
 
+    // The order's line in the text history format, which Order.parse reads back.
+    @Override
+    public String toString() {
+        return TextHistoryExporter.appendTo(new StringBuilder(64), this).toString();
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -211,7 +316,7 @@ public class Order implements Serializable {
 
     // Add method to generate dish descriptions
     public List<String> getDishDescriptions() {
-        return dishes.stream()
+        return getDishes().stream()
             .map(dish -> String.format("%s: %s", dish.name(), dish.getDescription()))
             .collect(Collectors.toList());
     }
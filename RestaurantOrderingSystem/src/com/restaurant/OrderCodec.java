@@ -0,0 +1,344 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * Compact, versioned binary format for saved order history.
+ *
+ * <pre>
+ * "SBOH" version:u8
+ * baseMillis:zigzag-varint                      earliest placement time (version 2)
+ * dishCount:varint   { name:string }            dish dictionary
+ * waiterCount:varint { id:varint name:string }  waiter dictionary
+ * orderCount:varint  { order }
+ *
+ * order := table:varint capacity:varint waiter:varint status:u8
+ *          discountBasisPoints:varint finalPriceCents:zigzag-varint
+ *          placedAtMillis:varint (version 2, relative to baseMillis)
+ *          lineCount:varint { dish:varint quantity:varint }
+ * string := length:varint utf8-bytes
+ * </pre>
+ *
+ * Dishes and waiters are written once in the dictionaries and referenced by index;
+ * localisation state is not stored. Reading resolves dish names against the current menu.
+ * Version 1 files are still read; their orders have no placement time and get the epoch instead.
+ */
+final class OrderCodec {
+
+    private static final byte[] MAGIC = {'S', 'B', 'O', 'H'};
+    static final int VERSION = 2;
+    private static final int FIRST_VERSION_WITH_PLACED_AT = 2;
+    // An order takes at least one byte for each field and for its line count.
+    private static final int MIN_ORDER_BYTES = 7;
+
+    private OrderCodec() {
+    }
+
+    /**
+     * The dictionaries at the start of a history file, resolved against a menu.
+     *
+     * @param version    Format version of the file.
+     * @param baseMillis Placement times of orders are stored relative to this.
+     * @param dishes     Menu dishes by dictionary index.
+     * @param waiters    Waiters by dictionary index.
+     * @param orderCount Number of orders following the header.
+     */
+    record Header(int version, long baseMillis, Dish[] dishes, Waiter[] waiters, int orderCount) {
+
+        boolean hasPlacedAt() {
+            return version >= FIRST_VERSION_WITH_PLACED_AT;
+        }
+    }
+
+    private record WaiterKey(int id, String name) {
+        static WaiterKey of(Waiter waiter) {
+            return new WaiterKey(waiter.getWaiterId(), waiter.getName());
+        }
+    }
+
+    /**
+     * Writes a complete history file.
+     *
+     * @param orders The orders to write.
+     * @param out    The stream to write to; it is not closed.
+     * @throws IOException If writing fails.
+     */
+    static void write(List<Order> orders, OutputStream out) throws IOException {
+        // First pass: assign dictionary indexes to every dish and waiter in use.
+        Map<String, Integer> dishIndexes = new HashMap<>();
+        List<String> dishNames = new ArrayList<>();
+        // Waiter.equals only compares ids, but the dictionary must keep differently named waiters apart.
+        Map<WaiterKey, Integer> waiterIndexes = new HashMap<>();
+        List<Waiter> waiters = new ArrayList<>();
+        long baseMillis = Long.MAX_VALUE;
+        for (Order order : orders) {
+            baseMillis = Math.min(baseMillis, order.getPlacedAt().toEpochMilli());
+            order.forEachLine((dish, quantity) -> {
+                if (dishIndexes.putIfAbsent(dish.name(), dishNames.size()) == null) {
+                    dishNames.add(dish.name());
+                }
+            });
+            Waiter waiter = order.getWaiter();
+            if (waiterIndexes.putIfAbsent(WaiterKey.of(waiter), waiters.size()) == null) {
+                waiters.add(waiter);
+            }
+        }
+
+        Sink sink = new Sink(out);
+        sink.bytes(MAGIC);
+        sink.u8(VERSION);
+        sink.zigzag(orders.isEmpty() ? 0 : baseMillis);
+        sink.varint(dishNames.size());
+        for (String name : dishNames) {
+            sink.string(name);
+        }
+        sink.varint(waiters.size());
+        for (Waiter waiter : waiters) {
+            sink.varint(waiter.getWaiterId());
+            sink.string(waiter.getName());
+        }
+
+        sink.varint(orders.size());
+        for (Order order : orders) {
+            sink.varint(order.getTable().getTableNumber());
+            sink.varint(order.getTable().getCapacity());
+            sink.varint(waiterIndexes.get(WaiterKey.of(order.getWaiter())));
+            sink.u8(order.getStatus().ordinal());
+            sink.varint(Money.basisPoints(order.getDiscountPercentage()));
+            sink.zigzag(order.getFinalPriceCents());
+            sink.varint(order.getPlacedAt().toEpochMilli() - baseMillis);
+            sink.varint(order.getLineCount());
+            order.forEachLine((dish, quantity) -> {
+                sink.varint(dishIndexes.get(dish.name()));
+                sink.varint(quantity);
+            });
+        }
+        sink.flush();
+    }
+
+    // Reads the magic, version and dictionaries, leaving the buffer at the first order.
+    static Header readHeader(ByteBuffer in, Menu menu) throws IOException {
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            in.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not an order history file.");
+            }
+            int version = Byte.toUnsignedInt(in.get());
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported order history version: " + version);
+            }
+            long baseMillis = version >= FIRST_VERSION_WITH_PLACED_AT ? zigzag(in) : 0;
+
+            Dish[] dishes = new Dish[count(in, 1)];
+            for (int i = 0; i < dishes.length; i++) {
+                String name = string(in);
+                dishes[i] = menu.findDishByName(name)
+                    .orElseThrow(() -> new IOException("Dish no longer on the menu: " + name));
+            }
+            Waiter[] waiters = new Waiter[count(in, 2)];
+            for (int i = 0; i < waiters.length; i++) {
+                int id = varint(in);
+                waiters[i] = new Waiter(string(in), id);
+            }
+            return new Header(version, baseMillis, dishes, waiters, count(in, MIN_ORDER_BYTES));
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Order history file is truncated or corrupt.", e);
+        }
+    }
+
+    /**
+     * Decodes the order at the buffer's position.
+     *
+     * @param tables Cache of Table instances shared between decoded orders, keyed by number and capacity.
+     */
+    static Order readOrder(ByteBuffer in, Header header, Menu menu, ResourceBundle messages, Map<Long, Table> tables)
+            throws IOException {
+        try {
+            int tableNumber = varint(in);
+            int capacity = varint(in);
+            Table table = tables.computeIfAbsent(((long) tableNumber << 32) | (capacity & 0xFFFFFFFFL),
+                    key -> new Table(tableNumber, capacity));
+            Waiter waiter = header.waiters()[varint(in)];
+            OrderStatus status = OrderStatus.values()[in.get()];
+            long discountBasisPoints = varint(in);
+            long finalPriceCents = zigzag(in);
+            long placedAtMillis = header.hasPlacedAt() ? header.baseMillis() + varlong(in) : 0;
+
+            Order order = new Order(table, waiter, menu, messages);
+            int lines = count(in, 2);
+            for (int i = 0; i < lines; i++) {
+                order.addDish(header.dishes()[varint(in)], varint(in));
+            }
+            order.setStatus(status);
+            order.setDiscountPercentage(discountBasisPoints / 100.0);
+            order.setFinalPriceCents(finalPriceCents);
+            order.setPlacedAt(Instant.ofEpochMilli(placedAtMillis));
+            return order;
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                 | InvalidOrderException e) {
+            throw new IOException("Corrupt order record at byte " + in.position() + ".", e);
+        }
+    }
+
+    // Moves the buffer past the order at its position without decoding it.
+    static void skipOrder(ByteBuffer in, Header header) throws IOException {
+        try {
+            int lines = skipToLines(in, header);
+            for (int i = 0; i < lines; i++) {
+                varlong(in);
+                varlong(in);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Corrupt order record at byte " + in.position() + ".", e);
+        }
+    }
+
+    /**
+     * Moves the buffer past the fields of the order at its position, leaving it at the order's
+     * (dish, quantity) pairs.
+     *
+     * @return The number of dish lines that follow.
+     */
+    static int skipToLines(ByteBuffer in, Header header) {
+        varlong(in); // table
+        varlong(in); // capacity
+        varlong(in); // waiter
+        in.get();    // status
+        varlong(in); // discount
+        varlong(in); // final price
+        if (header.hasPlacedAt()) {
+            varlong(in);
+        }
+        return count(in, 2);
+    }
+
+    static int varint(ByteBuffer in) {
+        return (int) varlong(in);
+    }
+
+    /**
+     * Reads the number of items that follow, checking it against the bytes left so that a corrupt
+     * count is reported as such rather than allocating a huge or negative-sized array.
+     *
+     * @param minBytesEach The fewest bytes any one item can be encoded in.
+     */
+    static int count(ByteBuffer in, int minBytesEach) {
+        long count = varlong(in);
+        if (count < 0 || count > in.remaining() / minBytesEach) {
+            throw new IllegalArgumentException("Item count " + count + " exceeds the " + in.remaining() + " bytes left.");
+        }
+        return (int) count;
+    }
+
+    static long varlong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed varint.");
+    }
+
+    static long zigzag(ByteBuffer in) {
+        long raw = varlong(in);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    static String string(ByteBuffer in) {
+        byte[] bytes = new byte[count(in, 1)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Buffered writer for the primitive encodings, so encoding never goes through a
+     * synchronized stream one byte at a time.
+     */
+    private static final class Sink {
+
+        private final OutputStream out;
+        private final byte[] buffer = new byte[1 << 16];
+        private int position;
+        private IOException failure;
+
+        Sink(OutputStream out) {
+            this.out = out;
+        }
+
+        void u8(int value) {
+            ensure(1);
+            buffer[position++] = (byte) value;
+        }
+
+        void varint(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void zigzag(long value) {
+            varint((value << 1) ^ (value >> 63));
+        }
+
+        void string(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            varint(utf8.length);
+            bytes(utf8);
+        }
+
+        void bytes(byte[] bytes) {
+            int offset = 0;
+            while (offset < bytes.length) {
+                ensure(1);
+                int n = Math.min(bytes.length - offset, buffer.length - position);
+                System.arraycopy(bytes, offset, buffer, position, n);
+                position += n;
+                offset += n;
+            }
+        }
+
+        // Makes room for the given number of bytes; write errors are kept and rethrown by flush().
+        private void ensure(int bytes) {
+            if (buffer.length - position < bytes) {
+                drain();
+            }
+        }
+
+        private void drain() {
+            if (failure == null && position > 0) {
+                try {
+                    out.write(buffer, 0, position);
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            position = 0;
+        }
+
+        void flush() throws IOException {
+            drain();
+            if (failure != null) {
+                throw failure;
+            }
+            out.flush();
+        }
+    }
+}
@@ -2,14 +2,21 @@ package com.restaurant;
 
 import java.io.*;
 import java.nio.file.*;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.ResourceBundle;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
@@ -19,69 +26,264 @@ public class OrderHistory implements Serializable {
 
     private static final long serialVersionUID = 1L; // Added serialVersionUID
 
-    private final List<Order> orders = new CopyOnWriteArrayList<>(); // Thread-safe list
+    // Parse errors printed by loadFromText before the rest are summarised.
+    private static final int MAX_REPORTED_PARSE_ERRORS = 20;
 
-    // Adds a new order to the history.
-    public void addOrder(Order order) {
-        orders.add(order);
+    // First chunk size of the per-table and per-waiter index buckets.
+    private static final int BUCKET_CHUNK_SIZE = 16;
+
+    // Timestamp layout of the order summary printed by displayOrderSummary.
+    private static final DateTimeFormatter SUMMARY_TIMESTAMP = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    // Lock-free append-only log; replaced as a whole when a file is loaded.
+    private volatile AppendOnlyLog<Order> orders = new AppendOnlyLog<>();
+    private transient OrderJournal journal; // Write-ahead journal of added orders, if attached
+    private final transient Menu menu; // Menu that loaded orders are resolved against
+    private final transient ResourceBundle messages; // Bundle given to loaded orders
+
+    // Secondary indexes, kept up to date as orders are added and as their status changes.
+    private final transient Map<Integer, AppendOnlyLog<Order>> ordersByTable = new ConcurrentHashMap<>();
+    private final transient Map<Integer, AppendOnlyLog<Order>> ordersByWaiter = new ConcurrentHashMap<>();
+    private final transient Map<OrderStatus, Set<Order>> ordersByStatus = new EnumMap<>(OrderStatus.class);
+    private final transient ConcurrentSkipListMap<Instant, AppendOnlyLog<Order>> ordersByTime = new ConcurrentSkipListMap<>();
+    private final transient Order.StatusListener statusIndexer = this::statusChanged;
+    private final transient List<OrderListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Creates a history with its own menu and the default locale's messages.
+    public OrderHistory() {
+        this(new Menu(), ResourceBundle.getBundle("com.restaurant.messages"));
     }
 
-    // Retrieves a copy of the order history to prevent external modifications.
+    /**
+     * Creates a history that resolves loaded orders against the given menu.
+     *
+     * @param menu     The restaurant's menu.
+     * @param messages The resource bundle given to loaded orders.
+     */
+    public OrderHistory(Menu menu, ResourceBundle messages) {
+        this.menu = menu;
+        this.messages = messages;
+        for (OrderStatus status : OrderStatus.values()) {
+            // Orders compare equal by table and waiter, so the status index must go by identity.
+            ordersByStatus.put(status, Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>())));
+        }
+    }
+
+    /**
+     * Adds a new order to the history. If a journal is attached, the order is made durable
+     * first and only then published, so no listener ever sees an order a restart would lose.
+     *
+     * @param order The order to add.
+     * @throws IOException If the order could not be journaled; it is then not added.
+     */
+    public void addOrder(Order order) throws IOException {
+        OrderJournal target = journal;
+        OrderStatus journaled = target != null ? target.append(order) : null;
+        orders.append(order);
+        // Holding the order's lock while indexing keeps a status change from slipping in unindexed.
+        synchronized (order) {
+            index(order);
+            if (journaled != null && order.getStatus() != journaled) {
+                target.appendStatus(order, order.getStatus()); // Changed before the listener was set
+            }
+        }
+        fireOrderAdded(order);
+    }
+
+    /**
+     * Attaches a write-ahead journal. The orders it recovered are added to the history,
+     * and every order added from now on is appended to it, along with its status changes.
+     * Bulk loads from files replace the in-memory history only; they are not journaled.
+     *
+     * @param journal The journal to attach.
+     */
+    public void attachJournal(OrderJournal journal) {
+        List<Order> recovered = journal.recoveredOrders();
+        orders.appendAll(recovered);
+        recovered.forEach(this::index);
+        recovered.forEach(this::fireOrderAdded);
+        this.journal = journal;
+    }
+
+    // Retrieves a read-only snapshot of the order history; orders added later do not appear in it.
     public List<Order> getOrders() {
-        return new ArrayList<>(orders); // Return a copy to avoid external modification
+        return orders.snapshot();
+    }
+
+    // Number of orders in the history.
+    public int size() {
+        return orders.size();
+    }
+
+    // Orders placed at a table, in the order they were added.
+    public List<Order> getOrdersForTable(int tableNumber) {
+        AppendOnlyLog<Order> bucket = ordersByTable.get(tableNumber);
+        return bucket == null ? List.of() : bucket.snapshot();
+    }
+
+    // Orders served by a waiter, in the order they were added.
+    public List<Order> getOrdersByWaiter(int waiterId) {
+        AppendOnlyLog<Order> bucket = ordersByWaiter.get(waiterId);
+        return bucket == null ? List.of() : bucket.snapshot();
+    }
+
+    // Orders currently in the given status, in no particular order.
+    public List<Order> getOrdersWithStatus(OrderStatus status) {
+        return List.copyOf(ordersByStatus.get(status));
+    }
+
+    /**
+     * Finds the orders placed in a time range, using the placement time index.
+     *
+     * @param from The start of the range, inclusive.
+     * @param to   The end of the range, exclusive.
+     * @return The orders placed in the range, earliest first.
+     */
+    public List<Order> getOrdersPlacedBetween(Instant from, Instant to) {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        List<Order> result = new ArrayList<>();
+        for (AppendOnlyLog<Order> bucket : ordersByTime.subMap(from, true, to, false).values()) {
+            result.addAll(bucket.snapshot());
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    // Adds an order to the secondary indexes and starts following its status changes.
+    private void index(Order order) {
+        ordersByTable.computeIfAbsent(order.getTable().getTableNumber(), key -> new AppendOnlyLog<>(BUCKET_CHUNK_SIZE)).append(order);
+        ordersByWaiter.computeIfAbsent(order.getWaiter().getWaiterId(), key -> new AppendOnlyLog<>(BUCKET_CHUNK_SIZE)).append(order);
+        // Few orders share a millisecond, so time buckets start out tiny.
+        ordersByTime.computeIfAbsent(order.getPlacedAt(), key -> new AppendOnlyLog<>(1)).append(order);
+        // Holding the order's lock keeps a concurrent status change from being missed or applied twice.
+        synchronized (order) {
+            order.setStatusListener(statusIndexer);
+            ordersByStatus.get(order.getStatus()).add(order);
+        }
+    }
+
+    private void statusChanged(Order order, OrderStatus from, OrderStatus to) {
+        ordersByStatus.get(from).remove(order);
+        ordersByStatus.get(to).add(order);
+        OrderJournal target = journal;
+        if (target != null) {
+            target.appendStatus(order, to); // So recovered orders come back in their last status
+        }
+    }
+
+    // Replaces the whole history, e.g. after a bulk load, and rebuilds the indexes.
+    // fromFile is the mapped file the orders were decoded from, or null.
+    private void replaceOrders(List<Order> newOrders, MappedOrderHistory fromFile) {
+        for (Order order : orders) {
+            order.setStatusListener(null);
+        }
+        ordersByTable.clear();
+        ordersByWaiter.clear();
+        ordersByTime.clear();
+        ordersByStatus.values().forEach(Set::clear);
+        AppendOnlyLog<Order> loaded = new AppendOnlyLog<>();
+        loaded.appendAll(newOrders);
+        orders = loaded;
+        newOrders.forEach(this::index);
+        List<Order> snapshot = loaded.snapshot();
+        for (OrderListener listener : listeners) {
+            notify(() -> {
+                if (fromFile != null) {
+                    listener.historyLoaded(fromFile, snapshot);
+                } else {
+                    listener.historyReset(snapshot);
+                }
+            });
+        }
+    }
+
+    /**
+     * Registers a listener for orders added to this history. It is first sent the current
+     * history through {@link OrderListener#historyReset(List)}.
+     *
+     * @param listener The listener to add.
+     */
+    public void addOrderListener(OrderListener listener) {
+        listeners.add(listener);
+        notify(() -> listener.historyReset(orders.snapshot()));
+    }
+
+    public void removeOrderListener(OrderListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fireOrderAdded(Order order) {
+        for (OrderListener listener : listeners) {
+            notify(() -> listener.orderAdded(order));
+        }
+    }
+
+    // A failing listener must not stop the order from being recorded or the other listeners from hearing of it.
+    private static void notify(Runnable event) {
+        try {
+            event.run();
+        } catch (RuntimeException e) {
+            System.err.println("Order listener failed: " + e.getMessage());
+        }
     }
 
     // Displays the order history in the console.
     public void displayHistory() {
-        if (orders.isEmpty()) {
-            System.out.println("No orders in history.");
-        } else {
-            orders.stream().forEach(Order::printDetails);
-        }
+        new HistoryView(orders.snapshot()).printDetails();
     }
 
-    // Saves the order history to a binary file.
+    // Saves the order history to a binary file in the compact OrderCodec format.
     public void saveToFile(Path filePath) {
         if (filePath == null || Files.isDirectory(filePath)) {
             System.err.println("Invalid file path. Please provide a valid file.");
             return;
         }
-        try (ObjectOutputStream oos = new ObjectOutputStream(Files.newOutputStream(filePath))) {
-            oos.writeObject(orders);
+        try (OutputStream out = Files.newOutputStream(filePath)) {
+            OrderCodec.write(orders.snapshot(), out);
             System.out.println("Order history saved successfully.");
         } catch (IOException e) {
             System.err.println("Failed to save order history: " + e.getMessage());
         }
     }
 
-    // Loads the order history from a binary file.
+    // Loads the order history from a binary file. The file is memory-mapped and each order is
+    // decoded straight from the mapping, so the file's bytes are never copied onto the heap.
     public void loadFromFile(Path filePath) {
         if (filePath == null || Files.isDirectory(filePath)) {
             System.err.println("Invalid file path. Please provide a valid file.");
             return;
         }
-        try (ObjectInputStream ois = new ObjectInputStream(Files.newInputStream(filePath))) {
-            @SuppressWarnings("unchecked")
-            List<Order> loadedOrders = (List<Order>) ois.readObject();
-            orders.clear();
-            orders.addAll(loadedOrders);
+        try {
+            // Decoded in full before anything is replaced, so a bad record leaves the history as it was.
+            MappedOrderHistory file = openMapped(filePath);
+            replaceOrders(List.copyOf(file.asList()), file);
             System.out.println("Order history loaded successfully.");
-        } catch (IOException | ClassNotFoundException e) {
+        } catch (IOException | IllegalStateException e) {
             System.err.println("Failed to load order history: " + e.getMessage());
         }
     }
 
+    /**
+     * Memory-maps a saved history file for lazy reading, without replacing this history.
+     * Orders are resolved against this history's menu and messages.
+     *
+     * @param filePath A file written by {@link #saveToFile(Path)}.
+     * @return The mapped history.
+     * @throws IOException If the file cannot be mapped or is not a valid history file.
+     */
+    public MappedOrderHistory openMapped(Path filePath) throws IOException {
+        return MappedOrderHistory.open(filePath, menu, messages);
+    }
+
     // Saves the order history to a text file.
     public void saveAsText(Path filePath) {
         if (filePath == null || Files.isDirectory(filePath)) {
             System.err.println("Invalid file path. Please provide a valid file.");
             return;
         }
-        try (BufferedWriter writer = Files.newBufferedWriter(filePath)) {
-            for (Order order : orders) {
-                writer.write(order.toString()); // Ensure Order has a proper toString implementation
-                writer.newLine();
-            }
+        try {
+            TextHistoryExporter.export(orders, filePath);
             System.out.println("Order history saved as text successfully.");
         } catch (IOException e) {
             System.err.println("Failed to save order history as text: " + e.getMessage());
@@ -94,76 +296,35 @@ public class OrderHistory implements Serializable {
             System.err.println("File does not exist: " + filePath);
             return;
         }
-        try (BufferedReader reader = Files.newBufferedReader(filePath)) {
-            orders.clear();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                if (line.isBlank()) {
-                    System.err.println("Skipping blank line in file.");
-                    continue;
-                }
-                Order order = Order.parse(line, getMenu()); // Ensure Order.parse supports text parsing
-                if (order != null) {
-                    orders.add(order);
-                } else {
-                    System.err.println("Failed to parse order: " + line);
-                }
+        try {
+            TextHistoryLoader.Result result = TextHistoryLoader.load(filePath, menu, messages);
+            replaceOrders(result.orders(), null);
+            List<TextHistoryLoader.ParseError> errors = result.errors();
+            errors.stream().limit(MAX_REPORTED_PARSE_ERRORS).forEach(System.err::println);
+            if (errors.size() > MAX_REPORTED_PARSE_ERRORS) {
+                System.err.printf("... and %d more line(s) with errors.%n", errors.size() - MAX_REPORTED_PARSE_ERRORS);
             }
             System.out.println("Order history loaded from text successfully.");
-        } catch (IOException | IllegalArgumentException e) {
+        } catch (IOException e) {
             System.err.println("Failed to load order history from text: " + e.getMessage());
         }
     }
 
-    // Dynamically determines the date format based on the locale.
-    private String getDateFormatForLocale(Locale locale) {
-        return DateTimeFormatter.ofLocalizedDate(FormatStyle.SHORT).withLocale(locale).toString();
-    }
-
-    // Displays a summary of an order using localized messages.
-    public void displayOrderSummary(Order order, ResourceBundle messages, Locale locale) {
-        System.out.println("\n" + "=".repeat(40));
-        System.out.println(" " + messages.getString("order_summary"));
-        System.out.println("=".repeat(40));
-
-        System.out.println(messages.getString("table_details"));
-        System.out.printf(messages.getString("table_number_format"), order.getTable().getTableNumber());
-        System.out.printf("  %s: %d %s%n", messages.getString("capacity"), order.getTable().getCapacity(), messages.getString("customers"));
-        System.out.printf("  %s: %d %s%n", messages.getString("seated_customers"), order.getTable().getCapacity(), messages.getString("customers"));
-        System.out.printf("  %s: %s%n", messages.getString("waiter"), order.getWaiter().getName());
-
-        System.out.println("\n" + messages.getString("ordered_items"));
-        System.out.println("-".repeat(40));
-        order.getDishes().forEach(dish ->
-            System.out.printf("  - %-25s (€%.2f)%n", dish.name(), dish.price())
-        );
-        System.out.println("-".repeat(40));
-
-        double subtotal = order.getDishes().stream().mapToDouble(Dish::price).sum();
-        System.out.printf("  %s: €%.2f%n", messages.getString("subtotal"), subtotal);
-
-        double discount = getValidDiscount(messages, new Scanner(System.in));
-        if (discount < 0) return; // Exit if invalid input
-
-        double discountedTotal = subtotal - (subtotal * (discount / 100));
-        System.out.println();
-        System.out.printf("  %s: €%.2f%n", messages.getString("total_after_discount"), discountedTotal);
-        System.out.println();
-
-        order.setDiscountPercentage(discount);
-        order.setFinalPrice(discountedTotal);
-
-        LocalDateTime now = LocalDateTime.now();
-        String dateFormat = getDateFormatForLocale(locale);
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(dateFormat + " HH:mm", locale);
-        System.out.printf("  %s: %s%n", messages.getString("order_timestamp"), now.format(formatter));
-        System.out.println();
-
-        System.out.println("=".repeat(40));
-        System.out.println(messages.getString("all_dishes_prepared"));
-        System.out.println(messages.getString("order_processed"));
-        System.out.println(messages.getString("order_added_history"));
-        System.out.println("=".repeat(40));
+    /**
+     * Asks for the discount and then displays a summary of the order using localized messages.
+     * The summary is rendered in one pass and reaches the console in a single write.
+     *
+     * @param order    The order to summarise; the discount is applied to it.
+     * @param messages Bundle for the localized lines.
+     * @param locale   Locale of the timestamp.
+     * @param scanner  Where the discount is read from.
+     */
+    public void displayOrderSummary(Order order, ResourceBundle messages, Locale locale, Scanner scanner) {
+        double discount = getValidDiscount(messages, scanner);
+        long discountedTotal = order.applyDiscount(discount);
+        // The message states the dd/MM/yyyy HH:mm layout, so the timestamp is written in it.
+        String timestamp = LocalDateTime.now().format(SUMMARY_TIMESTAMP.withLocale(locale));
+        new OrderSummary(order, discountedTotal, timestamp, messages).printDetails();
     }
 
     // Retrieves a valid discount percentage from the user.
@@ -189,8 +350,8 @@ public class OrderHistory implements Serializable {
         return discount;
     }
 
-    // Placeholder method to retrieve the menu instance.
+    // Retrieves the menu that loaded orders are resolved against.
     private Menu getMenu() {
-        return new Menu(); // Replace with actual logic to retrieve the Menu instance
+        return menu;
     }
 }
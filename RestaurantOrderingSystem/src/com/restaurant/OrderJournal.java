@@ -0,0 +1,459 @@
+package com.restaurant;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of placed orders.
+ * Every order is written as one checksummed record before it is added to the history,
+ * and each later status change of the order as a small record referring back to it.
+ * Each record's payload starts with a byte giving its type.
+ * Concurrent appends are committed together with a single fsync (group commit), the journal
+ * rolls over to a new segment file once the current one is full, and on startup the
+ * segments are replayed to recover every order committed before a crash.
+ */
+public class OrderJournal implements AutoCloseable {
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    // Segment file names; any other file in the directory is left alone.
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d{6,9})\\.log");
+
+    // First byte of every payload, telling an order record from a status change record.
+    private static final byte ORDER_RECORD = 1;
+    private static final byte STATUS_RECORD = 2;
+
+    // Record layout: payload length, CRC32 of the payload, payload.
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    // Upper bound on a single record, so a corrupted length cannot trigger a huge allocation.
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private static final long DEFAULT_SEGMENT_BYTES = 8L << 20;
+    private static final int MAX_BATCH = 512;
+
+    private final Path directory;
+    private final Menu menu;
+    private final ResourceBundle messages;
+    private final long maxSegmentBytes;
+    private final LinkedBlockingQueue<PendingRecord> pending = new LinkedBlockingQueue<>();
+    private final Thread committer;
+    private final List<Order> recovered;
+
+    // Sequence number the next order record gets; status records refer to orders by it.
+    private long nextOrderNumber;
+    // Journaled orders that may still change status, with their sequence numbers. Guarded by pending.
+    private final Map<Order, Long> openOrders = new IdentityHashMap<>();
+
+    private FileChannel segment;
+    private int segmentNumber;
+    private volatile boolean open = true;
+
+    private record PendingRecord(ByteBuffer bytes, CompletableFuture<Void> committed) {
+    }
+
+    // Queued by close() after the last real record; tells the committer to finish.
+    private static final PendingRecord END_OF_JOURNAL = new PendingRecord(ByteBuffer.allocate(0), null);
+
+    private OrderJournal(Path directory, Menu menu, ResourceBundle messages, long maxSegmentBytes) throws IOException {
+        this.directory = directory;
+        this.menu = menu;
+        this.messages = messages;
+        this.maxSegmentBytes = maxSegmentBytes;
+        Files.createDirectories(directory);
+        this.recovered = replay();
+        this.committer = new Thread(this::commitLoop, "order-journal");
+        this.committer.setDaemon(true);
+        this.committer.start();
+    }
+
+    /**
+     * Opens the journal in a directory, creating it if needed, and replays existing segments.
+     *
+     * @param directory The directory holding the segment files.
+     * @param menu      The menu used to resolve dishes of recovered orders.
+     * @param messages  The resource bundle given to recovered orders.
+     * @return The open journal.
+     * @throws IOException If the directory or the segments cannot be read.
+     */
+    public static OrderJournal open(Path directory, Menu menu, ResourceBundle messages) throws IOException {
+        return new OrderJournal(directory, menu, messages, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Opens the journal with a custom segment size.
+     *
+     * @param directory       The directory holding the segment files.
+     * @param menu            The menu used to resolve dishes of recovered orders.
+     * @param messages        The resource bundle given to recovered orders.
+     * @param maxSegmentBytes Size after which the journal rolls over to a new segment.
+     * @return The open journal.
+     * @throws IOException If the directory or the segments cannot be read.
+     */
+    public static OrderJournal open(Path directory, Menu menu, ResourceBundle messages, long maxSegmentBytes)
+            throws IOException {
+        return new OrderJournal(directory, menu, messages, maxSegmentBytes);
+    }
+
+    // Orders recovered from the journal when it was opened, in the order they were written.
+    public List<Order> recoveredOrders() {
+        return List.copyOf(recovered);
+    }
+
+    /**
+     * Writes an order to the journal and waits until it is durable on disk.
+     * Callers appending at the same time share one fsync.
+     *
+     * @param order The order to record.
+     * @return The status the order was recorded with.
+     * @throws IOException If the record could not be written.
+     */
+    public OrderStatus append(Order order) throws IOException {
+        PendingRecord record;
+        OrderStatus status;
+        // The order's lock keeps its status from changing between encoding it and registering the order,
+        // so every later change is written after the order record.
+        synchronized (order) {
+            status = order.getStatus();
+            record = new PendingRecord(frame(encode(order)), new CompletableFuture<>());
+            synchronized (pending) {
+                if (!open) {
+                    throw new IOException("The order journal is closed.");
+                }
+                pending.add(record);
+                long number = nextOrderNumber++;
+                if (status != OrderStatus.SERVED) {
+                    openOrders.put(order, number);
+                }
+            }
+        }
+        try {
+            record.committed().join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        }
+        return status;
+    }
+
+    /**
+     * Records a status change of a journaled order. The record is committed with the next
+     * batch; the caller does not wait for it, since it runs on the thread changing the status.
+     * Changes of orders that were never journaled are ignored.
+     *
+     * @param order  The order, whose lock the caller holds.
+     * @param status The order's new status.
+     */
+    public void appendStatus(Order order, OrderStatus status) {
+        PendingRecord record;
+        synchronized (pending) {
+            Long number = openOrders.get(order);
+            if (!open || number == null) {
+                return;
+            }
+            if (status == OrderStatus.SERVED) {
+                openOrders.remove(order); // Served is final, so the order needs no more tracking
+            }
+            record = new PendingRecord(frame(encodeStatus(number, status)), new CompletableFuture<>());
+            pending.add(record);
+        }
+        record.committed().whenComplete((ignored, failure) -> {
+            if (failure != null) {
+                System.err.println("Failed to write order status to the journal: " + failure.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Commits anything still pending and closes the current segment.
+     */
+    @Override
+    public void close() {
+        synchronized (pending) {
+            if (!open) {
+                return;
+            }
+            open = false;
+            pending.add(END_OF_JOURNAL);
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writes pending records in batches: one write and one fsync per batch.
+    private void commitLoop() {
+        List<PendingRecord> batch = new ArrayList<>(MAX_BATCH);
+        boolean finished = false;
+        while (!finished) {
+            try {
+                batch.add(pending.take());
+            } catch (InterruptedException e) {
+                continue; // Only close() ends the loop, so nothing queued is ever dropped
+            }
+            pending.drainTo(batch, MAX_BATCH - 1);
+            finished = batch.removeIf(record -> record == END_OF_JOURNAL);
+            if (!batch.isEmpty()) {
+                commit(batch);
+            }
+            batch.clear();
+        }
+        closeSegment();
+    }
+
+    private void commit(List<PendingRecord> batch) {
+        try {
+            if (segment == null || segment.size() >= maxSegmentBytes) {
+                rollSegment();
+            }
+            ByteBuffer[] buffers = new ByteBuffer[batch.size()];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = batch.get(i).bytes();
+            }
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= segment.write(buffers);
+            }
+            segment.force(false);
+            batch.forEach(record -> record.committed().complete(null));
+        } catch (IOException e) {
+            batch.forEach(record -> record.committed().completeExceptionally(e));
+        }
+    }
+
+    private void rollSegment() throws IOException {
+        closeSegment();
+        segmentNumber++;
+        segment = FileChannel.open(segmentPath(segmentNumber),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void closeSegment() {
+        if (segment != null) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close journal segment: " + e.getMessage());
+            }
+            segment = null;
+        }
+    }
+
+    private Path segmentPath(int number) {
+        return directory.resolve(String.format("%s%06d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    /**
+     * Reads every segment in order. A torn or corrupt record (bad length or checksum) ends the
+     * replay: everything after it is cut off so new records are appended after the last good
+     * one. An intact record that no longer decodes, e.g. because its dish was taken off the
+     * menu, is reported and skipped.
+     */
+    private List<Order> replay() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(directory)) {
+            segments = files
+                .filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                .sorted(Comparator.comparingInt(OrderJournal::segmentNumberOf))
+                .toList();
+        }
+
+        // Every order record by sequence number, with null for the ones that could not be decoded.
+        List<Order> numbered = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            Path path = segments.get(i);
+            segmentNumber = segmentNumberOf(path);
+            ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(path));
+            long validBytes = replaySegment(data, numbered, path);
+            if (validBytes < data.capacity()) {
+                System.err.printf("Order journal: discarding %d damaged byte(s) at the end of %s%n",
+                        data.capacity() - validBytes, path.getFileName());
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(validBytes);
+                }
+                for (Path later : segments.subList(i + 1, segments.size())) {
+                    Files.move(later, later.resolveSibling(later.getFileName() + ".discarded"));
+                }
+                break;
+            }
+        }
+        if (!segments.isEmpty()) {
+            segment = FileChannel.open(segmentPath(segmentNumber), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        nextOrderNumber = numbered.size();
+        List<Order> orders = new ArrayList<>(numbered.size());
+        for (int number = 0; number < numbered.size(); number++) {
+            Order order = numbered.get(number);
+            if (order != null) {
+                orders.add(order);
+                if (order.getStatus() != OrderStatus.SERVED) {
+                    openOrders.put(order, (long) number);
+                }
+            }
+        }
+        return orders;
+    }
+
+    // Decodes records until the end of the segment or the first damaged record; returns the valid length.
+    private long replaySegment(ByteBuffer data, List<Order> numbered, Path path) {
+        CRC32 crc = new CRC32();
+        while (data.remaining() >= RECORD_HEADER_BYTES) {
+            int start = data.position();
+            int length = data.getInt();
+            int checksum = data.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES || length > data.remaining()) {
+                return start;
+            }
+            ByteBuffer payload = data.slice(data.position(), length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                return start;
+            }
+            // The checksum matched, so the bytes are as written; a record that fails to decode is
+            // still intact and only this record is lost.
+            byte type = payload.get();
+            try {
+                switch (type) {
+                    case ORDER_RECORD -> numbered.add(decode(payload));
+                    case STATUS_RECORD -> applyStatus(payload, numbered);
+                    default -> throw new IllegalArgumentException("Unknown record type " + type);
+                }
+            } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                     | InvalidOrderException e) {
+                if (type == ORDER_RECORD) {
+                    numbered.add(null); // Keeps the numbers of the following orders
+                }
+                System.err.printf("Order journal: skipping a record at byte %d of %s: %s%n",
+                        start, path.getFileName(), e.getMessage());
+            }
+            data.position(data.position() + length);
+        }
+        return data.position();
+    }
+
+    // Only called for names matching SEGMENT_NAME, whose number always fits an int.
+    private static int segmentNumberOf(Path path) {
+        Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a journal segment: " + path);
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+        record.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        return record;
+    }
+
+    // Payload: ORDER_RECORD, table, capacity, waiter, status, discount, final price,
+    // (dish name, quantity) per line, placement time.
+    private static byte[] encode(Order order) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(ORDER_RECORD);
+        out.writeInt(order.getTable().getTableNumber());
+        out.writeInt(order.getTable().getCapacity());
+        out.writeUTF(order.getWaiter().getName());
+        out.writeInt(order.getWaiter().getWaiterId());
+        out.writeByte(order.getStatus().ordinal());
+        out.writeDouble(order.getDiscountPercentage());
+        out.writeLong(order.getFinalPriceCents());
+        out.writeShort(order.getLineCount());
+        IOException[] failure = new IOException[1];
+        order.forEachLine((dish, quantity) -> {
+            try {
+                out.writeUTF(dish.name());
+                out.writeInt(quantity);
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        out.writeLong(order.getPlacedAt().toEpochMilli());
+        return bytes.toByteArray();
+    }
+
+    // Payload: STATUS_RECORD, sequence number of the order, new status.
+    private static byte[] encodeStatus(long orderNumber, OrderStatus status) {
+        return ByteBuffer.allocate(1 + Long.BYTES + 1)
+                .put(STATUS_RECORD).putLong(orderNumber).put((byte) status.ordinal()).array();
+    }
+
+    // Applies a status change record, read past its type, to the order it refers to if that order was recovered.
+    private static void applyStatus(ByteBuffer in, List<Order> numbered) {
+        long number = in.getLong();
+        OrderStatus status = OrderStatus.values()[in.get()];
+        if (number < 0 || number >= numbered.size()) {
+            throw new IllegalArgumentException("Status change for unknown order " + number);
+        }
+        Order order = numbered.get((int) number);
+        if (order != null) {
+            order.setStatus(status);
+        }
+    }
+
+    // Decodes an order record, read past its type.
+    private Order decode(ByteBuffer in) throws InvalidOrderException {
+        Table table = new Table(in.getInt(), in.getInt());
+        Waiter waiter = new Waiter(readUtf(in), in.getInt());
+        OrderStatus status = OrderStatus.values()[in.get()];
+        double discount = in.getDouble();
+        long finalPrice = in.getLong();
+
+        Order order = new Order(table, waiter, menu, messages);
+        int lines = in.getShort();
+        for (int i = 0; i < lines; i++) {
+            String dishName = readUtf(in);
+            int quantity = in.getInt();
+            Dish dish = menu.findDishByName(dishName)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown dish in journal: " + dishName));
+            order.addDish(dish, quantity);
+        }
+        order.setStatus(status);
+        order.setDiscountPercentage(discount);
+        order.setFinalPriceCents(finalPrice);
+        // Records written before placement times were journaled end after the last line.
+        order.setPlacedAt(in.remaining() >= Long.BYTES ? Instant.ofEpochMilli(in.getLong()) : Instant.EPOCH);
+        return order;
+    }
+
+    // Reads a string written by DataOutput.writeUTF; dish and waiter names never use the modified-UTF-8 edge cases.
+    private static String readUtf(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
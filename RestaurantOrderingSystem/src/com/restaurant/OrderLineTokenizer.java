@@ -0,0 +1,203 @@
+package com.restaurant;
+
+/**
+ * Reusable cursor over the comma-separated fields of one order line.
+ * It works on a region of any CharSequence (a String, a CharBuffer over a decoded file, ...)
+ * and reports each field as a pair of indexes into it, with surrounding whitespace left out,
+ * so a line can be parsed without copying any of it into new strings.
+ *
+ * Fields follow {@link String#split(String)} with a "," separator: empty fields at the end of the
+ * line are dropped, and whitespace means any character up to ' ', as in {@link String#trim()}.
+ * Anything after the first '|' is the trailer, whose fields are separated by '|' and are only
+ * read after {@link #startTrailer()}.
+ */
+final class OrderLineTokenizer {
+
+    private CharSequence text;
+    private int lineStart;
+    private int fieldsEnd;
+    private int trailerStart; // -1 if the line has no trailer
+    private int trailerEnd;
+    private boolean blank;
+    private char separator;
+    private int lineEnd;
+    private int position;
+    private int fieldStart;
+    private int fieldEnd;
+
+    /**
+     * Points the tokenizer at a new line; the next call to {@link #nextField()} reads its first field.
+     *
+     * @param text  The text holding the line.
+     * @param start Index of the first character of the line.
+     * @param end   Index after the last character of the line.
+     * @return This tokenizer.
+     */
+    OrderLineTokenizer reset(CharSequence text, int start, int end) {
+        blank = true;
+        for (int i = start; i < end && blank; i++) {
+            blank = Character.isWhitespace(text.charAt(i));
+        }
+        int pipe = start;
+        while (pipe < end && text.charAt(pipe) != '|') {
+            pipe++;
+        }
+        this.text = text;
+        this.lineStart = start;
+        this.trailerStart = pipe < end ? pipe + 1 : -1;
+        this.trailerEnd = end;
+        // Trailing empty fields are ignored, like String.split does.
+        while (pipe > start && text.charAt(pipe - 1) == ',') {
+            pipe--;
+        }
+        this.fieldsEnd = pipe;
+        return startFields();
+    }
+
+    // Goes back to the first comma-separated field of the line.
+    OrderLineTokenizer startFields() {
+        separator = ',';
+        lineEnd = fieldsEnd;
+        position = lineStart;
+        fieldStart = lineStart;
+        fieldEnd = lineStart;
+        return this;
+    }
+
+    // True if the line has a '|' trailer after its fields.
+    boolean hasTrailer() {
+        return trailerStart >= 0;
+    }
+
+    // Moves to the trailer; the next call to nextField() reads its first '|'-separated field.
+    OrderLineTokenizer startTrailer() {
+        separator = '|';
+        lineEnd = trailerEnd;
+        position = trailerStart;
+        fieldStart = trailerStart;
+        fieldEnd = trailerStart;
+        return this;
+    }
+
+    // True if the line is empty or only whitespace.
+    boolean isBlank() {
+        return blank;
+    }
+
+    // Number of fields left on the line, including the one the next nextField() call reads.
+    int remainingFields() {
+        if (position > lineEnd) {
+            return 0;
+        }
+        int fields = 1;
+        for (int i = position; i < lineEnd; i++) {
+            if (text.charAt(i) == separator) {
+                fields++;
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * Moves to the next field.
+     *
+     * @return False if the line has no more fields.
+     */
+    boolean nextField() {
+        if (position > lineEnd) {
+            return false;
+        }
+        int start = position;
+        int end = start;
+        while (end < lineEnd && text.charAt(end) != separator) {
+            end++;
+        }
+        position = end + 1;
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        fieldStart = start;
+        fieldEnd = end;
+        return true;
+    }
+
+    CharSequence text() {
+        return text;
+    }
+
+    int fieldStart() {
+        return fieldStart;
+    }
+
+    int fieldEnd() {
+        return fieldEnd;
+    }
+
+    boolean fieldIsEmpty() {
+        return fieldStart == fieldEnd;
+    }
+
+    /**
+     * Parses the current field as a decimal int in place.
+     *
+     * @throws NumberFormatException If the field is not a valid int.
+     */
+    int fieldAsInt() {
+        return Integer.parseInt(text, fieldStart, fieldEnd, 10);
+    }
+
+    // Parses the current field as a decimal long in place.
+    long fieldAsLong() {
+        return Long.parseLong(text, fieldStart, fieldEnd, 10);
+    }
+
+    /**
+     * Parses the current field as a decimal with at most two fraction digits, such as "12.5"
+     * or "-0.99", into hundredths (cents or basis points) in place.
+     *
+     * @throws NumberFormatException If the field is not such a number.
+     */
+    long fieldAsHundredths() {
+        int i = fieldStart;
+        boolean negative = i < fieldEnd && text.charAt(i) == '-';
+        if (negative) i++;
+        long whole = 0;
+        int digits = 0;
+        while (i < fieldEnd && isDigit(text.charAt(i)) && digits < 17) {
+            whole = whole * 10 + (text.charAt(i++) - '0');
+            digits++;
+        }
+        long fraction = 0;
+        int fractionDigits = 0;
+        if (i < fieldEnd && text.charAt(i) == '.') {
+            i++;
+            while (i < fieldEnd && isDigit(text.charAt(i)) && fractionDigits < 2) {
+                fraction = fraction * 10 + (text.charAt(i++) - '0');
+                fractionDigits++;
+            }
+        }
+        if (digits + fractionDigits == 0 || i != fieldEnd) {
+            throw new NumberFormatException("Not an amount: \"" + text.subSequence(fieldStart, fieldEnd) + "\"");
+        }
+        long hundredths = whole * 100 + (fractionDigits == 1 ? fraction * 10 : fraction);
+        return negative ? -hundredths : hundredths;
+    }
+
+    // ASCII digits only: Character.isDigit also accepts other scripts' digits, which c - '0' would misread.
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // True if the current field holds exactly the given characters.
+    boolean fieldEquals(String value) {
+        int length = fieldEnd - fieldStart;
+        if (value.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) != text.charAt(fieldStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,39 @@
+package com.restaurant;
+
+import java.util.List;
+
+/**
+ * Receives order events from an {@link OrderHistory}, so derived data such as recommendations
+ * or statistics can be kept up to date incrementally instead of rescanning the history.
+ * Events are delivered on the thread that changed the history, so implementations must be
+ * thread-safe and should return quickly.
+ */
+public interface OrderListener {
+
+    /**
+     * Called after an order has been added to the history.
+     *
+     * @param order The new order.
+     */
+    void orderAdded(Order order);
+
+    /**
+     * Called when the listener is registered and whenever the whole history is replaced,
+     * e.g. by loading a file. Everything derived from earlier events should be discarded.
+     *
+     * @param orders Every order now in the history.
+     */
+    void historyReset(List<Order> orders);
+
+    /**
+     * Called instead of {@link #historyReset(List)} when the history is replaced by a saved file,
+     * so a listener that only needs the dishes ordered can scan the mapped file rather than the
+     * decoded orders. Resets from the orders unless overridden.
+     *
+     * @param file   The mapped file the history was loaded from.
+     * @param orders Every order now in the history, decoded from the file.
+     */
+    default void historyLoaded(MappedOrderHistory file, List<Order> orders) {
+        historyReset(orders);
+    }
+}
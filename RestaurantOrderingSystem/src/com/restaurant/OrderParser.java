@@ -0,0 +1,208 @@
+package com.restaurant;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Parses order lines of the form "TableNumber,WaiterName,WaiterId,Dish1,Dish2,..." against one
+ * menu and resource bundle. A line may end with the trailer "|Status|Discount|FinalPrice|Capacity|PlacedAt"
+ * written by {@link TextHistoryExporter}, where PlacedAt is in epoch milliseconds and may be left out;
+ * without a trailer the order is PLACED, undiscounted and seated at a table of {@link #DEFAULT_CAPACITY}. Table and Waiter instances are shared between the orders it parses,
+ * so one parser can be used from several threads to import a large file.
+ */
+final class OrderParser {
+
+    // Capacity given to parsed tables when the line has no trailer.
+    static final int DEFAULT_CAPACITY = 4;
+
+    // Tables and waiters with small numbers are found by index, without boxing the number.
+    private static final int SMALL_IDS = 1024;
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+
+    private final Menu menu;
+    private final ResourceBundle messages;
+    private final AtomicReferenceArray<Table> smallTables = new AtomicReferenceArray<>(SMALL_IDS);
+    private final AtomicReferenceArray<Waiter> smallWaiters = new AtomicReferenceArray<>(SMALL_IDS);
+    private final Map<Long, Table> tables = new ConcurrentHashMap<>(); // Keyed by number and capacity
+    // Waiter.equals only compares ids, so differently named waiters are cached separately.
+    private final Map<WaiterKey, Waiter> waiters = new ConcurrentHashMap<>();
+
+    private record WaiterKey(String name, int id) {
+    }
+
+    OrderParser(Menu menu, ResourceBundle messages) {
+        if (menu == null) {
+            throw new IllegalArgumentException("Menu cannot be null.");
+        }
+        this.menu = menu;
+        this.messages = messages;
+    }
+
+    /**
+     * Parses one order line.
+     *
+     * @param orderString  The line to parse.
+     * @param failedDishes Receives the names of dishes that could not be added to the order.
+     * @return The parsed order, containing every dish that could be added.
+     * @throws IllegalArgumentException If the line is not a valid order.
+     */
+    Order parse(String orderString, List<String> failedDishes) {
+        if (orderString == null) {
+            throw new IllegalArgumentException("Order string cannot be null or empty.");
+        }
+        return parse(new OrderLineTokenizer().reset(orderString, 0, orderString.length()), failedDishes);
+    }
+
+    /**
+     * Parses the line a tokenizer has just been reset to, reading fields in place.
+     *
+     * @param line         The tokenizer positioned at the start of the line.
+     * @param failedDishes Receives the names of dishes that could not be added to the order.
+     * @return The parsed order, containing every dish that could be added.
+     * @throws IllegalArgumentException If the line is not a valid order.
+     */
+    Order parse(OrderLineTokenizer line, List<String> failedDishes) {
+        if (line.isBlank()) {
+            throw new IllegalArgumentException("Order string cannot be null or empty.");
+        }
+        if (line.remainingFields() < 3) {
+            throw new IllegalArgumentException("Invalid order string format. Expected format: 'TableNumber,WaiterName,WaiterId,Dish1,Dish2,...'");
+        }
+
+        OrderStatus status = OrderStatus.PLACED;
+        long discountBasisPoints = 0;
+        long finalPriceCents = 0;
+        int capacity = DEFAULT_CAPACITY;
+        long placedAtMillis = Long.MIN_VALUE; // Keep the order's own time unless the trailer has one
+        if (line.hasTrailer()) {
+            line.startTrailer();
+            int trailerFields = line.remainingFields();
+            if (trailerFields != 4 && trailerFields != 5) {
+                throw new IllegalArgumentException("Invalid order trailer. Expected format: '|Status|Discount|FinalPrice|Capacity|PlacedAt'");
+            }
+            line.nextField();
+            status = parseStatus(line);
+            try {
+                line.nextField();
+                discountBasisPoints = line.fieldAsHundredths();
+                line.nextField();
+                finalPriceCents = line.fieldAsHundredths();
+                line.nextField();
+                capacity = line.fieldAsInt();
+                if (trailerFields == 5) {
+                    line.nextField();
+                    placedAtMillis = line.fieldAsLong();
+                }
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Discount, final price, capacity and placement time must be valid numbers.", e);
+            }
+            line.startFields();
+        }
+
+        line.nextField();
+        int tableField = line.fieldStart();
+        int tableFieldEnd = line.fieldEnd();
+        line.nextField();
+        int nameStart = line.fieldStart();
+        int nameEnd = line.fieldEnd();
+        line.nextField();
+
+        int tableNumber;
+        int waiterId;
+        try {
+            tableNumber = Integer.parseInt(line.text(), tableField, tableFieldEnd, 10);
+            waiterId = line.fieldAsInt();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Table number and waiter ID must be valid integers.", e);
+        }
+
+        if (nameStart == nameEnd) {
+            throw new IllegalArgumentException("Waiter name cannot be empty.");
+        }
+
+        Order order = new Order(table(tableNumber, capacity), waiter(line.text(), nameStart, nameEnd, waiterId), menu, messages);
+        MenuSnapshot dishes = order.getMenuSnapshot();
+        while (line.nextField()) {
+            if (line.fieldIsEmpty()) {
+                continue;
+            }
+            int id = dishes.findDishId(line.text(), line.fieldStart(), line.fieldEnd());
+            if (id < 0) {
+                failedDishes.add("Unknown Dish");
+                continue;
+            }
+            Dish dish = dishes.getDish(id);
+            try {
+                order.addDish(dish);
+            } catch (InvalidOrderException e) {
+                failedDishes.add(dish.name());
+            }
+        }
+        order.setStatus(status);
+        order.setDiscountPercentage(discountBasisPoints / 100.0);
+        order.setFinalPriceCents(finalPriceCents);
+        if (placedAtMillis != Long.MIN_VALUE) {
+            order.setPlacedAt(Instant.ofEpochMilli(placedAtMillis));
+        }
+        return order;
+    }
+
+    private static OrderStatus parseStatus(OrderLineTokenizer line) {
+        for (OrderStatus status : STATUSES) {
+            if (line.fieldEquals(status.name())) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown order status in trailer.");
+    }
+
+    // Shared Table instance for a table number and capacity.
+    private Table table(int tableNumber, int capacity) {
+        boolean small = tableNumber >= 0 && tableNumber < SMALL_IDS;
+        if (small) {
+            Table cached = smallTables.get(tableNumber);
+            if (cached != null && cached.getCapacity() == capacity) {
+                return cached;
+            }
+        }
+        Table table = tables.computeIfAbsent(((long) tableNumber << 32) | (capacity & 0xFFFFFFFFL),
+                key -> new Table(tableNumber, capacity));
+        if (small) {
+            smallTables.compareAndSet(tableNumber, null, table);
+        }
+        return table;
+    }
+
+    // Looks the waiter up by id first, so the name only becomes a String the first time it is seen.
+    private Waiter waiter(CharSequence text, int nameStart, int nameEnd, int waiterId) {
+        if (waiterId >= 0 && waiterId < SMALL_IDS) {
+            Waiter cached = smallWaiters.get(waiterId);
+            if (cached != null && regionEquals(cached.getName(), text, nameStart, nameEnd)) {
+                return cached;
+            }
+        }
+        String name = text.subSequence(nameStart, nameEnd).toString();
+        Waiter waiter = waiters.computeIfAbsent(new WaiterKey(name, waiterId), key -> new Waiter(key.name(), key.id()));
+        if (waiterId >= 0 && waiterId < SMALL_IDS) {
+            smallWaiters.compareAndSet(waiterId, null, waiter);
+        }
+        return waiter;
+    }
+
+    private static boolean regionEquals(String value, CharSequence text, int start, int end) {
+        if (value.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) != text.charAt(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,61 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.util.ResourceBundle;
+
+/**
+ * The summary of a processed order that is saved as a receipt file: table, waiter, the dishes
+ * ordered, the totals before and after discount, and the kitchen's preparation log.
+ *
+ * @param order              The processed order.
+ * @param seatedCustomers    Number of customers seated at the table.
+ * @param totalCents         Subtotal before discount.
+ * @param discount           Discount percentage applied.
+ * @param discountedCents    Total after discount.
+ * @param formattedTimestamp When the order was placed, formatted for display.
+ * @param messages           Bundle for the localized lines.
+ */
+public record OrderReceipt(Order order, int seatedCustomers, long totalCents, double discount,
+                           long discountedCents, String formattedTimestamp, ResourceBundle messages)
+        implements Printable {
+
+    private static final MessageCatalog.Template TABLE_NUMBER = MessageCatalog.compile("Table Number: %d\n");
+    private static final MessageCatalog.Template WAITER = MessageCatalog.compile("Waiter: %s\n");
+    private static final MessageCatalog.Template SEATED_CUSTOMERS = MessageCatalog.compile("Seated Customers: %d\n");
+    private static final MessageCatalog.Template ITEM = MessageCatalog.compile("- %s (€%.2f)\n");
+    private static final MessageCatalog.Template DISCOUNT = MessageCatalog.compile("Discount: %.2f%%\n");
+    private static final MessageCatalog.Template TIMESTAMP = MessageCatalog.compile("Order Timestamp: %s\n");
+    private static final MessageCatalog.Template PREPARED = MessageCatalog.compile("- %s (%d of %d) prepared\n");
+
+    @Override
+    public void renderTo(Appendable out) throws IOException {
+        RenderBuffer.appendTo(out, this::appendReceipt);
+    }
+
+    private void appendReceipt(StringBuilder sb) {
+        MessageCatalog catalog = MessageCatalog.of(messages);
+        sb.append("Order Summary\n");
+        sb.append("=============\n");
+        TABLE_NUMBER.appendTo(sb, order.getTable().getTableNumber());
+        WAITER.appendTo(sb, order.getWaiter().getName());
+        SEATED_CUSTOMERS.appendTo(sb, seatedCustomers);
+        sb.append("\nOrdered Items:\n");
+        order.forEachLine((dish, quantity) -> {
+            for (int n = 0; n < quantity; n++) {
+                ITEM.appendTo(sb, dish.name(), dish.price());
+            }
+        });
+        Money.appendTo(sb.append("\nSubtotal: €"), totalCents).append('\n');
+        DISCOUNT.appendTo(sb, discount);
+        catalog.appendTo(sb, "total.after.discount", Money.toDouble(discountedCents)).append('\n');
+        TIMESTAMP.appendTo(sb, formattedTimestamp);
+        sb.append("\nDish Preparation Logs:\n");
+        order.forEachLine((dish, quantity) -> {
+            for (int i = 1; i <= quantity; i++) {
+                PREPARED.appendTo(sb, dish.name(), i, quantity);
+            }
+        });
+        sb.append('\n').append(catalog.text("order_processed")).append('\n');
+        sb.append(catalog.text("order_added_history")).append('\n');
+    }
+}
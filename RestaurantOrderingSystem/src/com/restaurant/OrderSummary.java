@@ -0,0 +1,63 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.util.ResourceBundle;
+
+/**
+ * The on-screen summary of a processed order: table details, the dishes ordered, the totals
+ * before and after discount, and the closing status lines.
+ *
+ * @param order           The processed order.
+ * @param discountedCents Total after discount.
+ * @param timestamp       When the order was placed, formatted for display.
+ * @param messages        Bundle for the localized lines.
+ */
+public record OrderSummary(Order order, long discountedCents, String timestamp, ResourceBundle messages)
+        implements Printable {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+    private static final String RULE = "=".repeat(40);
+    private static final String DIVIDER = "-".repeat(40);
+    private static final MessageCatalog.Template ITEM = MessageCatalog.compile("  - %-25s (€%.2f)%n");
+
+    @Override
+    public void renderTo(Appendable out) throws IOException {
+        RenderBuffer.appendTo(out, this::appendSummary);
+    }
+
+    private void appendSummary(StringBuilder sb) {
+        MessageCatalog catalog = MessageCatalog.of(messages);
+        sb.append(LINE_SEPARATOR).append(RULE).append(LINE_SEPARATOR);
+        sb.append(' ').append(catalog.text("order_summary")).append(LINE_SEPARATOR);
+        sb.append(RULE).append(LINE_SEPARATOR);
+
+        sb.append(catalog.text("table_details")).append(LINE_SEPARATOR);
+        catalog.appendTo(sb.append("  "), "table_number", order.getTable().getTableNumber()).append(LINE_SEPARATOR);
+        catalog.appendTo(sb.append("  "), "capacity", order.getTable().getCapacity()).append(LINE_SEPARATOR);
+        catalog.appendTo(sb.append("  "), "seated_customers", order.getTable().getCapacity()).append(LINE_SEPARATOR);
+        catalog.appendTo(sb.append("  "), "waiter", order.getWaiter().getName()).append(LINE_SEPARATOR);
+
+        sb.append(LINE_SEPARATOR);
+        sb.append(catalog.text("ordered_items")).append(LINE_SEPARATOR);
+        sb.append(DIVIDER).append(LINE_SEPARATOR);
+        order.forEachLine((dish, quantity) -> {
+            for (int i = 0; i < quantity; i++) {
+                ITEM.appendTo(sb, dish.name(), dish.price());
+            }
+        });
+        sb.append(DIVIDER).append(LINE_SEPARATOR);
+        catalog.appendTo(sb.append("  "), "subtotal", Money.toDouble(order.getSubtotalCents())).append(LINE_SEPARATOR);
+
+        sb.append(LINE_SEPARATOR);
+        catalog.appendTo(sb.append("  "), "total_after_discount", Money.toDouble(discountedCents)).append(LINE_SEPARATOR);
+        sb.append(LINE_SEPARATOR);
+        catalog.appendTo(sb.append("  "), "order_timestamp", timestamp).append(LINE_SEPARATOR);
+        sb.append(LINE_SEPARATOR);
+
+        sb.append(RULE).append(LINE_SEPARATOR);
+        sb.append(catalog.text("all_dishes_prepared")).append(LINE_SEPARATOR);
+        sb.append(catalog.text("order_processed")).append(LINE_SEPARATOR);
+        sb.append(catalog.text("order_added_history")).append(LINE_SEPARATOR);
+        sb.append(RULE).append(LINE_SEPARATOR);
+    }
+}
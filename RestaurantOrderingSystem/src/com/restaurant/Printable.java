@@ -1,15 +1,40 @@
 package com.restaurant;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 /**
  * Interface for classes that can print their details.
  * Provides default and static methods for additional utilities.
+ *
+ * Implementations only render: {@link #renderTo(Appendable)} writes the text to a console,
+ * file, socket or buffer alike, and printing is built on top of it.
  */
 public interface Printable {
 
     /**
-     * Prints the details of the implementing class.
+     * Renders the details of the implementing class.
+     *
+     * @param out Where to write the text, e.g. a StringBuilder, a Writer or System.out.
+     * @throws IOException If the destination cannot be written.
+     */
+    void renderTo(Appendable out) throws IOException;
+
+    /**
+     * Prints the details of the implementing class. They are rendered into a pooled buffer
+     * and written to the console in one call.
      */
-    void printDetails();
+    default void printDetails() {
+        StringBuilder sb = RenderBuffer.acquire();
+        try {
+            renderTo(sb);
+            System.out.print(sb);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // A StringBuilder never throws
+        } finally {
+            RenderBuffer.release(sb);
+        }
+    }
 
     /**
      * Prints a formatted header for output.
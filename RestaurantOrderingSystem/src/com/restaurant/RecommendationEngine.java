@@ -0,0 +1,290 @@
+package com.restaurant;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Dish recommendations kept up to date as orders arrive.
+ * For every order added to the history it adds the ordered units to per-dish counters and
+ * counts every pair of dishes ordered together in a co-occurrence matrix. Small top-k tables
+ * are maintained alongside, so "most popular" and "often ordered with X" are answered in O(k)
+ * however large the history grows.
+ *
+ * Dishes are counted by name against the menu version the engine was last reset on, so a
+ * repriced dish keeps its history. When the menu is reloaded, {@link #historyReset(List)}
+ * re-keys the counters to the new version and counts the history again.
+ */
+public class RecommendationEngine implements OrderListener {
+
+    private static final int DEFAULT_TOP_K = 5;
+
+    private final Menu source;
+    private final int k;
+    // Dish ids index the counters, so everything below belongs to one menu version; it is only
+    // replaced under the write lock, and only read under the read lock.
+    private MenuSnapshot menu;
+    private int dishCount;
+    private AtomicLongArray unitsOrdered;  // Units ordered per dish id
+    private AtomicLongArray ordersTogether; // Orders containing both dishes, at [a * dishCount + b]
+    private TopK popular;
+    private TopK[] pairedWith;
+    // Orders are counted concurrently under the read lock; a history reset takes the write lock.
+    private final ReadWriteLock resetLock = new ReentrantReadWriteLock();
+
+    // Creates an engine that can answer for up to five dishes at a time.
+    public RecommendationEngine(Menu menu) {
+        this(menu, DEFAULT_TOP_K);
+    }
+
+    /**
+     * Creates an engine for the dishes of a menu.
+     *
+     * @param menu The menu whose dishes are counted; dishes that are no longer on it are ignored.
+     * @param k    The largest number of dishes a single answer can hold.
+     */
+    public RecommendationEngine(Menu menu, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be positive.");
+        }
+        this.source = menu;
+        this.k = k;
+        clear(menu.snapshot());
+    }
+
+    @Override
+    public void orderAdded(Order order) {
+        resetLock.readLock().lock();
+        try {
+            countOrder(order);
+        } finally {
+            resetLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Clears the counters and counts the given orders again. The counters are re-keyed to the
+     * menu's current version first, so call this after a reload as well as after a history load.
+     * The recount happens under the write lock, so an order added meanwhile waits for it and is
+     * counted once, against the rebuilt counters.
+     */
+    @Override
+    public void historyReset(List<Order> orders) {
+        resetLock.writeLock().lock();
+        try {
+            clear(source.snapshot());
+            orders.forEach(this::countOrder);
+        } finally {
+            resetLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Recounts a history loaded from a saved file by scanning the file's dish lines, without
+     * going through the decoded orders.
+     */
+    @Override
+    public void historyLoaded(MappedOrderHistory file, List<Order> orders) {
+        resetLock.writeLock().lock();
+        try {
+            clear(source.snapshot());
+            int[][] scratch = {new int[8], new int[8]}; // ids and quantities, grown as needed
+            file.forEachOrderLines((dishes, quantities, lines) -> {
+                if (scratch[0].length < lines) {
+                    scratch[0] = new int[lines];
+                    scratch[1] = new int[lines];
+                }
+                int counted = 0;
+                for (int i = 0; i < lines; i++) {
+                    int id = idOf(dishes[i]);
+                    if (id >= 0) {
+                        scratch[0][counted] = id;
+                        scratch[1][counted++] = quantities[i];
+                    }
+                }
+                count(scratch[0], scratch[1], counted);
+            });
+        } finally {
+            resetLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The most ordered dishes by units, most popular first.
+     *
+     * @param limit The number of dishes wanted; at most the k given at construction.
+     * @return Up to {@code limit} dishes; empty if nothing has been ordered.
+     */
+    public List<Dish> mostPopular(int limit) {
+        resetLock.readLock().lock();
+        try {
+            return dishes(popular.top(limit));
+        } finally {
+            resetLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The dishes that appear most often in the same order as a given dish.
+     *
+     * @param dish  The dish to find companions for.
+     * @param limit The number of dishes wanted; at most the k given at construction.
+     * @return Up to {@code limit} dishes, most frequent first; empty if the dish is not on the menu
+     *         or was never ordered with anything else.
+     */
+    public List<Dish> oftenOrderedWith(Dish dish, int limit) {
+        resetLock.readLock().lock();
+        try {
+            int id = idOf(dish);
+            return id < 0 ? List.of() : dishes(pairedWith[id].top(limit));
+        } finally {
+            resetLock.readLock().unlock();
+        }
+    }
+
+    // Total units of a dish ordered so far.
+    public long unitsOrdered(Dish dish) {
+        resetLock.readLock().lock();
+        try {
+            int id = idOf(dish);
+            return id < 0 ? 0 : unitsOrdered.get(id);
+        } finally {
+            resetLock.readLock().unlock();
+        }
+    }
+
+    // Number of orders that contained both dishes.
+    public long ordersTogether(Dish first, Dish second) {
+        resetLock.readLock().lock();
+        try {
+            int a = idOf(first);
+            int b = idOf(second);
+            return a < 0 || b < 0 || a == b ? 0 : ordersTogether.get(a * dishCount + b);
+        } finally {
+            resetLock.readLock().unlock();
+        }
+    }
+
+    // The counter index of a dish: its id on the counted menu version, found by name so that
+    // orders taken before a reload still count. Callers hold a lock.
+    private int idOf(Dish dish) {
+        return dish == null ? -1 : menu.findDishId(dish.name(), 0, dish.name().length());
+    }
+
+    // Adds an order's dishes to the counters; callers hold a lock.
+    private void countOrder(Order order) {
+        int[] ids = new int[order.getLineCount()];
+        int[] quantities = new int[ids.length];
+        int[] lines = {0};
+        order.forEachLine((dish, quantity) -> {
+            int id = idOf(dish);
+            if (id >= 0 && lines[0] < ids.length) {
+                ids[lines[0]] = id;
+                quantities[lines[0]++] = quantity;
+            }
+        });
+        count(ids, quantities, lines[0]);
+    }
+
+    private void count(int[] ids, int[] quantities, int lines) {
+        for (int i = 0; i < lines; i++) {
+            popular.offer(ids[i], unitsOrdered.addAndGet(ids[i], quantities[i]));
+            for (int j = 0; j < lines; j++) {
+                if (i != j) {
+                    long together = ordersTogether.incrementAndGet(ids[i] * dishCount + ids[j]);
+                    pairedWith[ids[i]].offer(ids[j], together);
+                }
+            }
+        }
+    }
+
+    // Starts counting from zero on a menu version; callers hold the write lock or are constructing.
+    private void clear(MenuSnapshot snapshot) {
+        menu = snapshot;
+        dishCount = snapshot.size();
+        unitsOrdered = new AtomicLongArray(dishCount);
+        ordersTogether = new AtomicLongArray(dishCount * dishCount);
+        popular = new TopK(k);
+        pairedWith = new TopK[dishCount];
+        for (int id = 0; id < dishCount; id++) {
+            pairedWith[id] = new TopK(k);
+        }
+    }
+
+    private List<Dish> dishes(int[] ids) {
+        List<Dish> dishes = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            dishes.add(menu.getDish(id));
+        }
+        return dishes;
+    }
+
+    /**
+     * The k dish ids with the highest counts, sorted by count (ties by menu order).
+     * Counts only ever grow, so offering a dish's new count after every increment keeps the
+     * table exact: a dish outside it can only get in by overtaking the current minimum.
+     * Counters are incremented outside this table's lock, so two offers for the same dish can
+     * arrive out of order; an entry keeps the highest count offered for it, and since a stored
+     * count never goes down, entries only ever move up.
+     */
+    private static final class TopK {
+
+        private final int[] ids;
+        private final long[] counts;
+        private int size;
+
+        TopK(int k) {
+            ids = new int[k];
+            counts = new long[k];
+        }
+
+        synchronized void offer(int id, long count) {
+            int position = 0;
+            while (position < size && ids[position] != id) {
+                position++;
+            }
+            if (position < size) {
+                if (count <= counts[position]) {
+                    return; // A stale count that lost the race to a newer one
+                }
+                counts[position] = count;
+            } else {
+                if (size < ids.length) {
+                    size++;
+                } else if (!ranksBefore(id, count, size - 1)) {
+                    return;
+                }
+                // Either a free slot or the current minimum, which the new entry replaces
+                position = size - 1;
+                ids[position] = id;
+                counts[position] = count;
+            }
+            while (position > 0 && ranksBefore(ids[position], counts[position], position - 1)) {
+                swap(position, position - 1);
+                position--;
+            }
+        }
+
+        synchronized int[] top(int limit) {
+            int[] top = new int[Math.min(Math.max(limit, 0), size)];
+            System.arraycopy(ids, 0, top, 0, top.length);
+            return top;
+        }
+
+        // Whether a dish with the given count ranks before the entry at position b.
+        private boolean ranksBefore(int id, long count, int b) {
+            return count > counts[b] || (count == counts[b] && id < ids[b]);
+        }
+
+        private void swap(int a, int b) {
+            int id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            long count = counts[a];
+            counts[a] = counts[b];
+            counts[b] = count;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Per-thread pool of the builders that {@link Printable} views render into, so printing a
+ * view allocates no new buffer and reaches the destination in one write.
+ */
+final class RenderBuffer {
+
+    // Streaming renderers hand their buffer to the destination once it holds this many characters.
+    static final int FLUSH_CHARS = 64 * 1024;
+
+    private static final int INITIAL_CHARS = 1024;
+    // Builders that grew past this are dropped instead of being kept for the thread.
+    private static final int MAX_RETAINED_CHARS = FLUSH_CHARS + 16 * 1024;
+
+    // The thread's idle builder; null while it is in use, so nested renders get their own.
+    private static final ThreadLocal<StringBuilder> POOL = new ThreadLocal<>();
+
+    private RenderBuffer() {
+    }
+
+    // Takes the thread's builder, empty, or a new one if it is already in use.
+    static StringBuilder acquire() {
+        StringBuilder sb = POOL.get();
+        if (sb == null) {
+            return new StringBuilder(INITIAL_CHARS);
+        }
+        POOL.set(null);
+        sb.setLength(0);
+        return sb;
+    }
+
+    // Returns a builder taken with acquire().
+    static void release(StringBuilder sb) {
+        if (sb.capacity() <= MAX_RETAINED_CHARS) {
+            sb.setLength(0);
+            POOL.set(sb);
+        }
+    }
+
+    /**
+     * Runs a renderer that writes to a StringBuilder against any Appendable. A StringBuilder
+     * destination is written to directly; anything else receives the whole text in one append.
+     *
+     * @param out    The destination.
+     * @param render Appends the text to the builder it is given.
+     * @throws IOException If the destination cannot be written.
+     */
+    static void appendTo(Appendable out, Consumer<StringBuilder> render) throws IOException {
+        if (out instanceof StringBuilder sb) {
+            render.accept(sb);
+            return;
+        }
+        StringBuilder sb = acquire();
+        try {
+            render.accept(sb);
+            out.append(sb);
+        } finally {
+            release(sb);
+        }
+    }
+}
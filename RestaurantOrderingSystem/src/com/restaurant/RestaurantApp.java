@@ -10,24 +10,80 @@ import java.time.*;
 import java.time.format.*;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.*;
-import java.util.stream.Collectors;
 
 public class RestaurantApp {
 
     // A list of waiter names that will be randomly assigned to tables.
     private static final List<String> WAITER_NAMES = List.of("Sophia", "Liam", "Olivia", "Noah", "Emma");
 
+    // The supported languages, in the order they are offered.
+    private static final List<Locale> LOCALES = List.of(
+        Locale.ENGLISH,
+        Locale.of("pt", "PT"), // Portuguese
+        Locale.of("fr", "FR"), // French
+        Locale.of("it", "IT"), // Italian
+        Locale.of("es", "ES"), // Spanish
+        Locale.GERMAN,
+        Locale.CHINA, // Simplified Chinese
+        Locale.of("ru", "RU"), // Russian
+        Locale.of("no", "NO"), // Norwegian
+        Locale.JAPAN // Japanese
+    );
+
     // The total number of languages supported by the application.
-    private static final int LANGUAGE_COUNT = 10;
+    private static final int LANGUAGE_COUNT = LOCALES.size();
+
+    // Number of dishes listed when a search while ordering matches more than one.
+    private static final int SEARCH_RESULT_COUNT = 5;
+
+    // Directory of the write-ahead journal that keeps order history across restarts.
+    private static final Path JOURNAL_DIRECTORY = Paths.get("orders", "journal");
+
+    // Menu data file that overrides the bundled menu and is reloaded whenever it is saved.
+    private static final Path MENU_FILE = Paths.get("menu_data.txt");
+
+    // Numbers the receipts saved in this run, keeping their file names apart.
+    private static final AtomicInteger RECEIPT_SEQUENCE = new AtomicInteger();
+
+    // Number of dishes shown by the recommendations option.
+    private static final int RECOMMENDATION_COUNT = 3;
+
+    // Trending dishes are weighted towards roughly the last hour of orders.
+    private static final Duration TRENDING_HORIZON = Duration.ofHours(1);
+
+    // Dishes with a lower recency-weighted score are not shown as trending.
+    private static final double MIN_TRENDING_SCORE = 0.5;
+
+    // One dish in the recommendation lists.
+    private static final MessageCatalog.Template RECOMMENDED_DISH = MessageCatalog.compile(" - %-25s (€%.2f)%n");
+
+    // The chefs staffing the kitchen; each one works a station for their specialty.
+    static final List<Chef> KITCHEN_CHEFS = List.of(
+        new Chef("Ana", "Appetizer"),
+        new Chef("Bruno", "Main Course"),
+        new Chef("Ciaran", "Main Course"),
+        new Chef("Dara", "Dessert")
+    );
 
     public static void main(String[] args) {
-        try (Scanner scanner = new Scanner(System.in)) {
-            // The Menu object represents the restaurant's menu, containing all available dishes.
-            Menu menu = new Menu();
+        // "--load-test [tables] [ordersPerTable] [prepMillis]" runs the dinner-rush simulation instead of the terminal.
+        if (args.length > 0 && args[0].equals("--load-test")) {
+            LoadTest.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
+        // "--simulate [serviceHours] [partiesPerHour] [seed]" replays a service day on a virtual clock.
+        if (args.length > 0 && args[0].equals("--simulate")) {
+            KitchenSimulator.main(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
 
-            // The OrderHistory object keeps track of all orders placed by customers.
-            OrderHistory orderHistory = new OrderHistory();
+        try (Scanner scanner = new Scanner(System.in); Kitchen kitchen = new Kitchen(KITCHEN_CHEFS)) {
+            // The Menu object represents the restaurant's menu, containing all available dishes.
+            // A menu file in the working directory is used instead of the bundled menu and reloaded when it changes.
+            Menu menu = openMenu();
+            MenuWatcher menuWatcher = startMenuWatcher(menu);
 
             // This flag controls whether the application should keep running or exit.
             boolean exit = false;
@@ -42,9 +98,25 @@ public class RestaurantApp {
             // Step 3: Load the appropriate resource bundle (translations) for the selected language.
             ResourceBundle messages = loadResourceBundle(locale);
 
+            // The OrderHistory object keeps track of all orders placed by customers.
+            OrderHistory orderHistory = new OrderHistory(menu, messages);
+
             // Step 4: Display a welcome message in the selected language.
             printWelcomeMessage(messages);
 
+            // Recover orders placed in earlier sessions and journal new ones as they are added.
+            OrderJournal journal = openJournal(menu, messages, orderHistory);
+
+            // Recommendations are updated as each order is added instead of rescanning the history.
+            RecommendationEngine recommendations = new RecommendationEngine(menu);
+            orderHistory.addOrderListener(recommendations);
+            // The engine counts by dish id, so it re-keys to each reloaded menu and recounts the history.
+            menu.addReloadListener(snapshot -> recommendations.historyReset(orderHistory.getOrders()));
+            TrendingTracker trending = new TrendingTracker(TRENDING_HORIZON);
+            orderHistory.addOrderListener(trending);
+            SalesAnalytics sales = new SalesAnalytics();
+            orderHistory.addOrderListener(sales);
+
             // Step 5: Main loop of the application. This keeps running until the user chooses to exit.
             while (!exit) {
                 try {
@@ -58,12 +130,15 @@ public class RestaurantApp {
                     switch (choice) {
                         case 1 -> menu.displayMenuByCategory(messages); // Show the menu grouped by dish type.
                         case 2 -> menu.displayDailySpecials(3, messages); // Show today's special dishes with a limit of 3.
-                        case 3 -> processOrder(menu, scanner, orderHistory, messages, locale); // Allow the user to place an order.
-                        case 4 -> orderHistory.displayHistory(); // Show the history of all previous orders.
+                        case 3 -> processOrder(menu, kitchen, scanner, orderHistory, messages, locale); // Allow the user to place an order.
+                        case 4 -> { // Show the history of all previous orders and the recent sales figures.
+                            orderHistory.displayHistory();
+                            displaySalesSummary(sales, messages);
+                        }
                         case 5 -> saveOrderHistory(scanner, orderHistory, messages); // Save the order history to a file.
                         case 6 -> loadOrderHistory(scanner, orderHistory, messages); // Load order history from a file.
                         case 7 -> bookEvent(scanner, messages); // Allow the user to book an event.
-                        case 8 -> recommendDishes(orderHistory, menu, messages); // Show AI-powered dish recommendations.
+                        case 8 -> recommendDishes(recommendations, trending, messages); // Show AI-powered dish recommendations.
                         case 9 -> saveOrderHistoryAsText(scanner, orderHistory, messages);
                         case 10 -> loadOrderHistoryFromText(scanner, orderHistory, messages);
                         case 11 -> {
@@ -78,6 +153,13 @@ public class RestaurantApp {
                 }
             }
 
+            if (journal != null) {
+                journal.close();
+            }
+            if (menuWatcher != null) {
+                menuWatcher.close();
+            }
+
             // Ensure messages is not null before using it
             if (messages != null) {
                 System.out.println(messages.getString("goodbye"));
@@ -129,19 +211,15 @@ public class RestaurantApp {
     // Maps the user's language choice to a Locale object, which represents the language and region.
     // This helps in loading the correct translations for the application.
     private static Locale getLocaleForLanguageChoice(int languageChoice) {
-        Map<Integer, Locale> localeMap = Map.of(
-            1, Locale.ENGLISH,
-            2, Locale.of("pt", "PT"), // Portuguese
-            3, Locale.of("fr", "FR"), // French
-            4, Locale.of("it", "IT"), // Italian
-            5, Locale.of("es", "ES"), // Spanish
-            6, Locale.GERMAN,
-            7, Locale.CHINA, // Simplified Chinese
-            8, Locale.of("ru", "RU"), // Russian
-            9, Locale.of("no", "NO"), // Norwegian
-            10, Locale.JAPAN // Japanese
-        );
-        return localeMap.getOrDefault(languageChoice, Locale.ENGLISH); // Default to English if the choice is invalid.
+        if (languageChoice < 1 || languageChoice > LOCALES.size()) {
+            return Locale.ENGLISH; // Default to English if the choice is invalid.
+        }
+        return LOCALES.get(languageChoice - 1);
+    }
+
+    // The translations of every supported language, so dishes can be found by any of their names.
+    private static List<ResourceBundle> searchBundles() {
+        return LOCALES.stream().map(RestaurantApp::loadResourceBundle).toList();
     }
 
     // Loads the appropriate resource bundle (translations) for the selected language.
@@ -155,6 +233,46 @@ public class RestaurantApp {
         }
     }
 
+    // Loads the menu from MENU_FILE if it exists, falling back to the bundled menu.
+    private static Menu openMenu() {
+        if (Files.isRegularFile(MENU_FILE)) {
+            try {
+                return new Menu(MENU_FILE);
+            } catch (IOException e) {
+                System.err.println("Failed to load " + MENU_FILE + ", using the bundled menu: " + e.getMessage());
+            }
+        }
+        return new Menu();
+    }
+
+    // Watches a file-backed menu for changes; returns null for the bundled menu or if watching is unavailable.
+    private static MenuWatcher startMenuWatcher(Menu menu) {
+        if (menu.getDataFile() == null) {
+            return null;
+        }
+        try {
+            return MenuWatcher.start(menu);
+        } catch (IOException e) {
+            System.err.println("Menu changes will not be picked up until restart: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // Opens the order journal and attaches it to the history; returns null if the journal is unavailable.
+    private static OrderJournal openJournal(Menu menu, ResourceBundle messages, OrderHistory orderHistory) {
+        try {
+            OrderJournal journal = OrderJournal.open(JOURNAL_DIRECTORY, menu, messages);
+            orderHistory.attachJournal(journal);
+            if (!journal.recoveredOrders().isEmpty()) {
+                System.out.println("Recovered " + journal.recoveredOrders().size() + " order(s) from the journal.");
+            }
+            return journal;
+        } catch (IOException e) {
+            System.err.println("Order journal unavailable, history will not survive a restart: " + e.getMessage());
+            return null;
+        }
+    }
+
     // Displays a welcome message in the selected language.
     // The message includes the restaurant's name and tagline.
     private static void printWelcomeMessage(ResourceBundle messages) {
@@ -220,7 +338,7 @@ public class RestaurantApp {
 
     // Method to process a new order.
     // This includes selecting dishes, calculating discounts, and finalizing the order.
-    private static void processOrder(Menu menu, Scanner scanner, OrderHistory orderHistory, ResourceBundle messages, Locale locale) {
+    private static void processOrder(Menu menu, Kitchen kitchen, Scanner scanner, OrderHistory orderHistory, ResourceBundle messages, Locale locale) {
         if (messages == null) {
             System.err.println("Error: Resource bundle 'messages' is not initialized. Exiting application.");
             return;
@@ -241,23 +359,19 @@ public class RestaurantApp {
             int waiterId = random.nextInt(1000);
             Waiter waiter = new Waiter(waiterName, waiterId);
 
-            order = new Order(table, waiter, messages);
+            MessageCatalog catalog = MessageCatalog.of(messages);
+            order = new Order(table, waiter, menu, messages);
             order.printSummary();
-            List<Dish> allDishes = menu.getAllDishes();
+            // The order is taken against the menu as it is now, even if it is reloaded meanwhile.
+            MenuSnapshot dishes = order.getMenuSnapshot();
+            List<Dish> allDishes = dishes.getAllDishes();
 
-            System.out.println("\n" + "=".repeat(50));
-            System.out.printf("%25s%n", messages.getString("menu"));
-            System.out.println("=".repeat(50));
-
-            for (int i = 0; i < allDishes.size(); i++) {
-                Dish dish = allDishes.get(i);
-                System.out.printf("%-3d %-30s (€ %.2f)%n", i + 1, dish.name(), dish.price());
-            }
-
-            System.out.println("=".repeat(50));
+            menu.displayOrderPicker(dishes, messages);
+            // Dishes can also be picked by typing part of their name, in any language and with typos.
+            DishSearchIndex search = menu.searchIndex(dishes, searchBundles());
 
             while (true) {
-                System.out.print(messages.getString("enter_dish_number"));
+                System.out.print(messages.getString("enter_dish_or_search"));
                 if (scanner.hasNextInt()) {
                     int choice = scanner.nextInt();
                     scanner.nextLine();
@@ -266,44 +380,52 @@ public class RestaurantApp {
                         continue;
                     }
                     if (choice == 0) {
-                        if (order.getDishes().isEmpty()) {
+                        if (order.getTotalQuantity() == 0) {
                             System.out.println(messages.getString("error") + ": " + messages.getString("no_dishes_added"));
                             continue; // Ensure at least one dish is added
                         }
                         break;
                     }
                     if (choice > 0 && choice <= allDishes.size()) {
-                        Dish selectedDish = allDishes.get(choice - 1);
-                        if (menu.isDishAvailable(selectedDish)) {
-                            try {
-                                order.addDish(selectedDish);
-                                System.out.printf(messages.getString("added_dish_format"), selectedDish.name(), selectedDish.price());
-                            } catch (InvalidOrderException e) {
-                                System.out.println(messages.getString("error") + ": " + e.getMessage());
-                            }
-                        } else {
-                            System.out.println(messages.getString("dish_not_available"));
-                        }
+                        addDishToOrder(order, allDishes.get(choice - 1), catalog, messages);
                     } else {
                         System.out.println(messages.getString("invalid_number"));
                     }
                 } else {
-                    System.out.println(messages.getString("invalid_input"));
-                    scanner.nextLine();
+                    String query = scanner.nextLine().trim();
+                    if (query.isEmpty()) {
+                        System.out.println(messages.getString("invalid_input"));
+                        continue;
+                    }
+                    List<DishSearchIndex.Match> matches = search.search(query, SEARCH_RESULT_COUNT);
+                    if (matches.isEmpty()) {
+                        System.out.println(catalog.format("no_dish_matches", query));
+                    } else if (matches.size() == 1 || matches.get(0).exact()) {
+                        // An unambiguous name is added straight away.
+                        addDishToOrder(order, matches.get(0).dish(), catalog, messages);
+                    } else {
+                        // Otherwise the matches are listed with the numbers that add them.
+                        System.out.println(messages.getString("search_matches"));
+                        for (DishSearchIndex.Match match : matches) {
+                            Dish dish = match.dish();
+                            System.out.println("  " + (dishes.idOf(dish) + 1) + ". "
+                                    + catalog.format("menu_item_format", dish.name(), dish.price()));
+                        }
+                    }
                 }
             }
 
             System.out.println("\n" + messages.getString("order_summary"));
             System.out.println(messages.getString("table_details"));
-            System.out.println(String.format("  %s", String.format(messages.getString("capacity"), table.getCapacity())));
-            System.out.println(String.format("  %s", String.format(messages.getString("seated_customers"), seatedCustomers)));
-            System.out.println(String.format("  %s", String.format(messages.getString("waiter"), waiter.getName())));
+            System.out.println("  " + catalog.format("capacity", table.getCapacity()));
+            System.out.println("  " + catalog.format("seated_customers", seatedCustomers));
+            System.out.println("  " + catalog.format("waiter", waiter.getName()));
 
             System.out.println("\n" + messages.getString("ordered_items"));
             order.printDetails();
 
-            double total = order.getDishes().stream().mapToDouble(Dish::price).sum();
-            System.out.println(String.format("\n%s", String.format(messages.getString("subtotal"), total)));
+            long total = order.getSubtotalCents();
+            System.out.println("\n" + catalog.format("subtotal", Money.toDouble(total)));
 
             while (true) {
                 System.out.print(messages.getString("enter_discount").replace("(0-25)", "(0-25%)"));
@@ -325,116 +447,32 @@ public class RestaurantApp {
                 }
             }
 
-            double discountedTotal = total - (total * (discount / 100));
-            System.out.println(String.format("\n%s", String.format(messages.getString("total_after_discount"), discountedTotal)));
-
-            order.setDiscountPercentage(discount);
-            order.setFinalPrice(discountedTotal);
+            long discountedTotal = order.applyDiscount(discount);
+            System.out.println("\n" + catalog.format("total_after_discount", Money.toDouble(discountedTotal)));
 
             SimpleDateFormat dateFormat = new SimpleDateFormat("dd/MM/yyyy HH:mm", locale);
             String formattedTimestamp = dateFormat.format(new Date());
             System.out.printf(messages.getString("order_timestamp").replace(" (dd/MM/yyyy HH:mm)", "") + "%n", formattedTimestamp);
             System.out.println(); // Add a blank line for better readability
 
-            Map<String, Long> dishCounts = order.getDishes().stream()
-                .collect(Collectors.groupingBy(Dish::name, Collectors.counting()));
-
-            // Replace Thread.sleep with ScheduledExecutorService for non-blocking delays
-            ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(4);
-
-            List<String> orderedDishNames = order.getDishes().stream()
-                .map(Dish::name)
-                .distinct()
-                .collect(Collectors.toList());
-
-            for (String dishName : orderedDishNames) {
-                long count = dishCounts.get(dishName);
-
-                for (int i = 1; i <= count; i++) {
-                    int dishIndex = i;
-                    scheduler.schedule(() -> {
-                        try {
-                            // Use the original casing of dish names from the menu
-                            String originalDishName = dishName;
-                            String timestamp = LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                            System.out.printf("[%s] --- Preparing dish: %s (%d of %d) --- %n", timestamp, originalDishName, dishIndex, count);
-
-                            // Simulate preparation time
-                            TimeUnit.MILLISECONDS.sleep(1000 + new Random().nextInt(2000));
-
-                            timestamp = LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm:ss"));
-                            System.out.printf("[%s] >>> Dish prepared: %s (%d of %d)! %n", timestamp, originalDishName, dishIndex, count);
-                        } catch (InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                            System.out.println(messages.getString("preparation_interrupted"));
-                        }
-                    }, 1000 + new Random().nextInt(2000), TimeUnit.MILLISECONDS);
-                }
-            }
-
-            scheduler.shutdown();
-            try {
-                scheduler.awaitTermination(1, TimeUnit.HOURS);
-            } catch (InterruptedException e) {
-                System.err.println(messages.getString("preparation_interrupted") + ": " + e.getMessage());
-            }
-
-            System.out.println("\n" + messages.getString("all_dishes_prepared"));
-
-            try (ExecutorService singleThreadExecutor = Executors.newSingleThreadExecutor()) {
-                Future<String> processingTask = singleThreadExecutor.submit(() -> {
-                    Thread.sleep(2000);
-                    return messages.getString("order_processed");
-                });
-
-                System.out.println("\n" + processingTask.get());
-            } catch (Exception e) {
-                System.err.println(messages.getString("order_failed") + ": " + e.getMessage());
-            }
-
-            if (!orderHistory.getOrders().contains(order)) {
+            // The order is journaled before the kitchen sees it, so a failure stops it here.
+            if (!orderHistory.getOrdersForTable(order.getTable().getTableNumber()).contains(order)) {
                 orderHistory.addOrder(order);
                 System.out.println("\n" + messages.getString("order_added_history"));
             }
 
-            // Save order summary to a text file
-            try {
-                String timestamp = new SimpleDateFormat("yyyy-MM-dd_HHmm").format(new Date());
-                Path ordersDir = Paths.get("orders");
-                if (!Files.exists(ordersDir)) {
-                    Files.createDirectories(ordersDir);
-                }
-                Path orderFile = ordersDir.resolve("order_" + timestamp + ".txt");
-
-                try (BufferedWriter writer = Files.newBufferedWriter(orderFile)) {
-                    writer.write("Order Summary\n");
-                    writer.write("=============\n");
-                    writer.write(String.format("Table Number: %d\n", table.getTableNumber()));
-                    writer.write(String.format("Waiter: %s\n", waiter.getName()));
-                    writer.write(String.format("Seated Customers: %d\n", seatedCustomers));
-                    writer.write("\nOrdered Items:\n");
-                    for (Dish dish : order.getDishes()) {
-                        writer.write(String.format("- %s (€%.2f)\n", dish.name(), dish.price()));
-                    }
-                    writer.write(String.format("\nSubtotal: €%.2f\n", total));
-                    writer.write(String.format("Discount: %.2f%%\n", discount));
-                    writer.write(String.format(messages.getString("total.after.discount") + "\n", discountedTotal));
-                    writer.write(String.format("Order Timestamp: %s\n", formattedTimestamp));
-                    writer.write("\nDish Preparation Logs:\n");
-                    for (String dishName : orderedDishNames) {
-                        long count = dishCounts.get(dishName);
-                        for (int i = 1; i <= count; i++) {
-                            writer.write(String.format("- %s (%d of %d) prepared\n", dishName, i, count));
-                        }
-                    }
-                    writer.write("\n" + messages.getString("order_processed") + "\n");
-                    writer.write(messages.getString("order_added_history") + "\n");
-                }
-
-                System.out.println(messages.getString("order_summary_saved") + ": " + orderFile.toAbsolutePath());
-            } catch (IOException e) {
-                System.err.println("Failed to save order summary: " + e.getMessage());
-            }
+            // Hand the order to the kitchen and keep the terminal free while it is prepared.
+            double appliedDiscount = discount;
+            kitchen.submit(order)
+                .thenAcceptAsync(served -> {
+                    System.out.println("\n" + messages.getString("all_dishes_prepared"));
+                    System.out.println(messages.getString("order_processed"));
+                    saveOrderSummary(served, seatedCustomers, total, appliedDiscount, discountedTotal, formattedTimestamp, messages);
+                })
+                .exceptionally(e -> {
+                    System.err.println(messages.getString("order_failed") + ": " + e.getMessage());
+                    return null;
+                });
         } catch (Exception e) {
             System.err.println(messages.getString("error_processing_order") + ": " + e.getMessage());
         }
@@ -444,7 +482,7 @@ public class RestaurantApp {
         Map<String, String> uniqueDescriptions = new LinkedHashMap<>();
         // Ensure order is not null before accessing its methods
         if (order != null) {
-            order.getDishes().forEach(dish -> 
+            order.forEachLine((dish, quantity) ->
                 uniqueDescriptions.putIfAbsent(dish.name(), dish.getDescription())
             );
         } else {
@@ -461,22 +499,17 @@ public class RestaurantApp {
         System.out.println("\nOrder Details:");
         // Ensure order is not null before accessing its methods
         if (order != null) {
-            Map<String, Long> dishQuantities = order.getDishes().stream()
-                .collect(Collectors.groupingBy(Dish::name, Collectors.counting()));
-            dishQuantities.forEach((dishName, quantity) ->
-                System.out.println(" - " + dishName + " x" + quantity)
+            order.forEachLine((dish, quantity) ->
+                System.out.println(" - " + dish.name() + " x" + quantity)
             );
         } else {
             System.err.println("Error: Order object is null. Cannot display order details.");
         }
 
-        // Display vegetarian dishes
-        Predicate<Dish> isVegetarian = Dish::isVegetarian;
-        List<Dish> vegetarianDishes = menu.getAllDishes().stream()
-            .filter(isVegetarian)
-            .collect(Collectors.toList());
+        // Display vegetarian dishes, taken from the menu's precomputed attribute index
+        List<Dish> vegetarianDishes = menu.findDishes(null, EnumSet.of(Dish.Attribute.VEGETARIAN), Set.of());
 
-        System.out.println("\n" + String.format(messages.getString("vegetarian_dishes"), vegetarianDishes.size()));
+        System.out.println("\n" + MessageCatalog.of(messages).format("vegetarian_dishes", vegetarianDishes.size()));
         vegetarianDishes.forEach(dish -> 
             System.out.println(" - " + dish.name() + ": " + dish.getLocalizedDescription(messages))
         );
@@ -484,9 +517,9 @@ public class RestaurantApp {
         // Display summary
         // Ensure order is not null before accessing its methods
         if (order != null) {
-            int totalDishes = order.getDishes().size();
+            int totalDishes = order.getTotalQuantity();
             // Removed unused assignment to avoid the compile error
-            double finalPrice = order.getFinalPrice();
+            double finalPrice = Money.toDouble(order.getFinalPriceCents());
 
             System.out.println();
             System.out.printf(messages.getString("total_dishes") + "\n", totalDishes);
@@ -496,6 +529,45 @@ public class RestaurantApp {
         }
     }
 
+    // Adds a dish picked from the order's menu, reporting whether it was added.
+    private static void addDishToOrder(Order order, Dish dish, MessageCatalog catalog, ResourceBundle messages) {
+        if (!order.getMenuSnapshot().isDishAvailable(dish)) {
+            System.out.println(messages.getString("dish_not_available"));
+            return;
+        }
+        try {
+            order.addDish(dish);
+            System.out.print(catalog.format("added_dish_format", dish.name(), dish.price()));
+        } catch (InvalidOrderException e) {
+            System.out.println(messages.getString("error") + ": " + e.getMessage());
+        }
+    }
+
+    // Saves a summary of a prepared order to a text file in the "orders" directory.
+    private static void saveOrderSummary(Order order, int seatedCustomers, long total, double discount,
+                                         long discountedTotal, String formattedTimestamp, ResourceBundle messages) {
+        try {
+            // Receipts are written while other orders are still cooking, so the name must be unique
+            // even for orders served within the same second.
+            String timestamp = new SimpleDateFormat("yyyy-MM-dd_HHmmss").format(new Date());
+            Path ordersDir = Paths.get("orders");
+            if (!Files.exists(ordersDir)) {
+                Files.createDirectories(ordersDir);
+            }
+            Path orderFile = ordersDir.resolve("order_" + timestamp + "_table" + order.getTable().getTableNumber()
+                    + "_" + RECEIPT_SEQUENCE.incrementAndGet() + ".txt");
+
+            try (BufferedWriter writer = Files.newBufferedWriter(orderFile)) {
+                new OrderReceipt(order, seatedCustomers, total, discount, discountedTotal, formattedTimestamp, messages)
+                    .renderTo(writer);
+            }
+
+            System.out.println(messages.getString("order_summary_saved") + ": " + orderFile.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Failed to save order summary: " + e.getMessage());
+        }
+    }
+
     // Method to book an event.
     // Collects event details such as name, date, time, and guest count.
     private static void bookEvent(Scanner scanner, ResourceBundle messages) {
@@ -565,29 +637,57 @@ public class RestaurantApp {
     }
 
     // Method to recommend dishes based on order history.
-    // Uses AI-powered logic to suggest the most frequently ordered dishes.
-    private static void recommendDishes(OrderHistory orderHistory, Menu menu, ResourceBundle messages) {
+    // Uses AI-powered logic to suggest the most frequently ordered dishes,
+    // the dishes most often ordered together with the favourite, and what is trending right now.
+    // The lists are rendered into a pooled buffer and printed in one write.
+    private static void recommendDishes(RecommendationEngine recommendations, TrendingTracker trending, ResourceBundle messages) {
         System.out.println("\n" + messages.getString("ai_recommendations_header").replace("IA", "AI"));
 
-        var dishFrequency = orderHistory.getOrders().stream()
-            .flatMap(order -> order.getDishes().stream())
-            .collect(Collectors.groupingBy(Dish::name, Collectors.counting()));
-
-        List<Dish> recommendedDishes = dishFrequency.entrySet().stream()
-            .sorted((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()))
-            .limit(3)
-            .map(entry -> menu.getAllDishes().stream()
-                .filter(dish -> dish.name().equals(entry.getKey()))
-                .findFirst().orElseThrow(() -> new IllegalStateException("Dish not found")))
-            .collect(Collectors.toList());
-
+        List<Dish> recommendedDishes = recommendations.mostPopular(RECOMMENDATION_COUNT);
         if (recommendedDishes.isEmpty()) {
             System.out.println(messages.getString("no_recommendations"));
-        } else {
-            System.out.println(messages.getString("recommended_dishes"));
-            recommendedDishes.forEach(dish ->
-                System.out.printf(" - %-25s (€%.2f)%n", dish.name(), dish.price())
-            );
+            return;
+        }
+
+        String newLine = System.lineSeparator();
+        StringBuilder sb = RenderBuffer.acquire();
+        try {
+            sb.append(messages.getString("recommended_dishes")).append(newLine);
+            recommendedDishes.forEach(dish -> RECOMMENDED_DISH.appendTo(sb, dish.name(), dish.price()));
+
+            Dish favourite = recommendedDishes.get(0);
+            List<Dish> companions = recommendations.oftenOrderedWith(favourite, RECOMMENDATION_COUNT);
+            if (!companions.isEmpty()) {
+                sb.append(newLine);
+                MessageCatalog.of(messages).appendTo(sb, "often_ordered_with", favourite.name()).append(newLine);
+                companions.forEach(dish -> RECOMMENDED_DISH.appendTo(sb, dish.name(), dish.price()));
+            }
+
+            List<TrendingTracker.Trend> trends = trending.trending(RECOMMENDATION_COUNT).stream()
+                .filter(trend -> trend.score() >= MIN_TRENDING_SCORE)
+                .toList();
+            if (!trends.isEmpty()) {
+                sb.append(newLine).append(messages.getString("trending_now")).append(newLine);
+                trends.forEach(trend -> RECOMMENDED_DISH.appendTo(sb, trend.dish().name(), trend.dish().price()));
+            }
+            System.out.print(sb);
+        } finally {
+            RenderBuffer.release(sb);
+        }
+    }
+
+    // Prints orders, revenue, average discount and average order size for each sliding window.
+    private static void displaySalesSummary(SalesAnalytics sales, ResourceBundle messages) {
+        if (sales.orderCount(SalesAnalytics.Window.LAST_DAY) == 0) {
+            return;
+        }
+        MessageCatalog catalog = MessageCatalog.of(messages);
+        System.out.println();
+        for (SalesAnalytics.Window window : SalesAnalytics.Window.values()) {
+            String key = "sales_" + window.name().toLowerCase(Locale.ROOT);
+            System.out.println(catalog.format(key, sales.orderCount(window),
+                Money.toDouble(sales.revenueCents(window)), sales.averageDiscountPercentage(window),
+                sales.averageOrderSize(window)));
         }
     }
 
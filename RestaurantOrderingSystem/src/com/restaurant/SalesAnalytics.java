@@ -0,0 +1,317 @@
+package com.restaurant;
+
+import java.time.Clock;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Live sales figures over sliding windows of the last 15 minutes, hour and day.
+ *
+ * Orders are counted into one-minute buckets, and each window also keeps running totals that
+ * are updated as orders arrive and as buckets slide out of it. Reading a figure therefore
+ * costs the same however many orders were placed. All counters are {@link LongAdder}s, so
+ * order threads recording at the same time do not contend on a shared counter; the window
+ * only takes an exclusive lock once a minute, to slide forward.
+ *
+ * Revenue is the discounted order total. Revenue per category is gross (before discount),
+ * since a discount applies to the order as a whole.
+ */
+public class SalesAnalytics implements OrderListener {
+
+    private static final long MILLIS_PER_MINUTE = 60_000;
+
+    /**
+     * The sliding windows figures are kept for.
+     */
+    public enum Window {
+        LAST_15_MINUTES(15),
+        LAST_HOUR(60),
+        LAST_DAY(24 * 60);
+
+        private final int minutes;
+
+        Window(int minutes) {
+            this.minutes = minutes;
+        }
+
+        public int getMinutes() {
+            return minutes;
+        }
+    }
+
+    private static final Window[] WINDOWS = Window.values();
+    private static final int RING_MINUTES = Window.LAST_DAY.minutes;
+    private static final Dish.Category[] CATEGORIES = Dish.Category.values();
+
+    private final Clock clock;
+    private final Aggregates[] ring = new Aggregates[RING_MINUTES]; // Bucket for minute m at m % RING_MINUTES
+    private final long[] ringMinutes = new long[RING_MINUTES];
+    private final Aggregates[] windows = new Aggregates[WINDOWS.length];
+    private long currentMinute;
+    // Orders are recorded concurrently under the read lock; sliding the window takes the write lock.
+    private final ReadWriteLock slideLock = new ReentrantReadWriteLock();
+
+    /**
+     * Figures for one window, as recorded at the moment it was taken.
+     *
+     * @param window            The window.
+     * @param orders            Orders placed in the window.
+     * @param revenueCents      Discounted revenue.
+     * @param units             Dishes ordered.
+     * @param revenueByCategory Gross revenue per dish category.
+     * @param revenueByWaiter   Discounted revenue per waiter id.
+     * @param revenueByTable    Discounted revenue per table number.
+     * @param discountBasisPoints Sum of the orders' discounts, in basis points.
+     */
+    public record Snapshot(Window window, long orders, long revenueCents, long units,
+                           Map<Dish.Category, Long> revenueByCategory, Map<Integer, Long> revenueByWaiter,
+                           Map<Integer, Long> revenueByTable, long discountBasisPoints) {
+
+        public double averageDiscountPercentage() {
+            return orders == 0 ? 0 : discountBasisPoints / 100.0 / orders;
+        }
+
+        public double averageOrderSize() {
+            return orders == 0 ? 0 : (double) units / orders;
+        }
+
+        public long averageOrderValueCents() {
+            return orders == 0 ? 0 : revenueCents / orders;
+        }
+    }
+
+    public SalesAnalytics() {
+        this(Clock.systemUTC());
+    }
+
+    // Creates analytics whose windows end at the given clock's current time.
+    public SalesAnalytics(Clock clock) {
+        this.clock = clock;
+        reset();
+    }
+
+    @Override
+    public void orderAdded(Order order) {
+        long minute = Math.floorDiv(order.getPlacedAt().toEpochMilli(), MILLIS_PER_MINUTE);
+        slideTo(Math.floorDiv(clock.millis(), MILLIS_PER_MINUTE));
+
+        slideLock.readLock().lock();
+        try {
+            // Orders stamped in the future count as now; ones older than a day no longer count anywhere.
+            minute = Math.min(minute, currentMinute);
+            long age = currentMinute - minute;
+            if (age >= RING_MINUTES) {
+                return;
+            }
+            Aggregates bucket = ring[(int) Math.floorMod(minute, (long) RING_MINUTES)];
+            bucket.add(order);
+            for (int w = 0; w < WINDOWS.length; w++) {
+                if (age < WINDOWS[w].minutes) {
+                    windows[w].add(order);
+                }
+            }
+        } finally {
+            slideLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void historyReset(List<Order> orders) {
+        slideLock.writeLock().lock();
+        try {
+            reset();
+        } finally {
+            slideLock.writeLock().unlock();
+        }
+        orders.forEach(this::orderAdded);
+    }
+
+    // Orders placed in the window.
+    public long orderCount(Window window) {
+        return read(window).orders.sum();
+    }
+
+    // Discounted revenue of the window, in cents.
+    public long revenueCents(Window window) {
+        return read(window).revenueCents.sum();
+    }
+
+    // Gross revenue of one dish category in the window, in cents.
+    public long revenueCents(Window window, Dish.Category category) {
+        return read(window).revenueByCategory[category.ordinal()].sum();
+    }
+
+    // Discounted revenue served by one waiter in the window, in cents.
+    public long revenueForWaiter(Window window, int waiterId) {
+        return sumOf(read(window).revenueByWaiter.get(waiterId));
+    }
+
+    // Discounted revenue of one table in the window, in cents.
+    public long revenueForTable(Window window, int tableNumber) {
+        return sumOf(read(window).revenueByTable.get(tableNumber));
+    }
+
+    // Mean discount percentage of the orders in the window.
+    public double averageDiscountPercentage(Window window) {
+        Aggregates totals = read(window);
+        long orders = totals.orders.sum();
+        return orders == 0 ? 0 : totals.discountBasisPoints.sum() / 100.0 / orders;
+    }
+
+    // Mean number of dishes per order in the window.
+    public double averageOrderSize(Window window) {
+        Aggregates totals = read(window);
+        long orders = totals.orders.sum();
+        return orders == 0 ? 0 : (double) totals.units.sum() / orders;
+    }
+
+    /**
+     * Takes all figures of a window at once, including the per-waiter and per-table breakdowns.
+     *
+     * @param window The window.
+     * @return The figures.
+     */
+    public Snapshot snapshot(Window window) {
+        Aggregates totals = read(window);
+        Map<Dish.Category, Long> byCategory = new EnumMap<>(Dish.Category.class);
+        for (Dish.Category category : CATEGORIES) {
+            byCategory.put(category, totals.revenueByCategory[category.ordinal()].sum());
+        }
+        return new Snapshot(window, totals.orders.sum(), totals.revenueCents.sum(), totals.units.sum(),
+                Collections.unmodifiableMap(byCategory), sums(totals.revenueByWaiter), sums(totals.revenueByTable),
+                totals.discountBasisPoints.sum());
+    }
+
+    // Slides the windows up to the present and returns a window's running totals.
+    private Aggregates read(Window window) {
+        slideTo(Math.floorDiv(clock.millis(), MILLIS_PER_MINUTE));
+        slideLock.readLock().lock();
+        try {
+            return windows[window.ordinal()];
+        } finally {
+            slideLock.readLock().unlock();
+        }
+    }
+
+    // Moves every window forward to end at the given minute, dropping the buckets that fall out of each.
+    private void slideTo(long minute) {
+        slideLock.readLock().lock();
+        try {
+            if (minute <= currentMinute) {
+                return;
+            }
+        } finally {
+            slideLock.readLock().unlock();
+        }
+
+        slideLock.writeLock().lock();
+        try {
+            if (minute - currentMinute >= RING_MINUTES) {
+                // Everything recorded is older than the longest window.
+                clear(minute);
+                return;
+            }
+            while (currentMinute < minute) {
+                currentMinute++;
+                for (int w = 0; w < WINDOWS.length; w++) {
+                    long expired = currentMinute - WINDOWS[w].minutes;
+                    int slot = (int) Math.floorMod(expired, (long) RING_MINUTES);
+                    if (ringMinutes[slot] == expired) {
+                        windows[w].subtract(ring[slot]);
+                    }
+                }
+                int slot = (int) Math.floorMod(currentMinute, (long) RING_MINUTES);
+                ring[slot] = new Aggregates();
+                ringMinutes[slot] = currentMinute;
+            }
+        } finally {
+            slideLock.writeLock().unlock();
+        }
+    }
+
+    private void reset() {
+        clear(Math.floorDiv(clock.millis(), MILLIS_PER_MINUTE));
+    }
+
+    // Empties every bucket and window, with the present at the given minute.
+    private void clear(long minute) {
+        currentMinute = minute;
+        for (int i = 0; i < RING_MINUTES; i++) {
+            // Slot i holds the most recent minute m <= currentMinute with m % RING_MINUTES == i.
+            long slotMinute = minute - Math.floorMod(minute - i, (long) RING_MINUTES);
+            ring[(int) Math.floorMod(slotMinute, (long) RING_MINUTES)] = new Aggregates();
+            ringMinutes[(int) Math.floorMod(slotMinute, (long) RING_MINUTES)] = slotMinute;
+        }
+        for (int w = 0; w < WINDOWS.length; w++) {
+            windows[w] = new Aggregates();
+        }
+    }
+
+    private static long sumOf(LongAdder adder) {
+        return adder == null ? 0 : adder.sum();
+    }
+
+    private static Map<Integer, Long> sums(Map<Integer, LongAdder> adders) {
+        Map<Integer, Long> sums = new HashMap<>();
+        adders.forEach((key, adder) -> {
+            long sum = adder.sum();
+            if (sum != 0) {
+                sums.put(key, sum);
+            }
+        });
+        return Collections.unmodifiableMap(sums);
+    }
+
+    /**
+     * Counters for one minute bucket or one window's running totals.
+     */
+    private static final class Aggregates {
+
+        final LongAdder orders = new LongAdder();
+        final LongAdder revenueCents = new LongAdder();
+        final LongAdder units = new LongAdder();
+        final LongAdder discountBasisPoints = new LongAdder();
+        final LongAdder[] revenueByCategory = new LongAdder[CATEGORIES.length];
+        final Map<Integer, LongAdder> revenueByWaiter = new ConcurrentHashMap<>();
+        final Map<Integer, LongAdder> revenueByTable = new ConcurrentHashMap<>();
+
+        Aggregates() {
+            for (int i = 0; i < revenueByCategory.length; i++) {
+                revenueByCategory[i] = new LongAdder();
+            }
+        }
+
+        void add(Order order) {
+            long discount = Money.basisPoints(order.getDiscountPercentage());
+            long revenue = Money.applyDiscount(order.getSubtotalCents(), discount);
+            orders.increment();
+            revenueCents.add(revenue);
+            units.add(order.getTotalQuantity());
+            discountBasisPoints.add(discount);
+            order.forEachLine((dish, quantity) ->
+                revenueByCategory[dish.category().ordinal()].add(Money.times(dish.priceCents(), quantity)));
+            revenueByWaiter.computeIfAbsent(order.getWaiter().getWaiterId(), id -> new LongAdder()).add(revenue);
+            revenueByTable.computeIfAbsent(order.getTable().getTableNumber(), number -> new LongAdder()).add(revenue);
+        }
+
+        // Removes a bucket's counts from these totals; only called while no orders are being recorded.
+        void subtract(Aggregates bucket) {
+            orders.add(-bucket.orders.sum());
+            revenueCents.add(-bucket.revenueCents.sum());
+            units.add(-bucket.units.sum());
+            discountBasisPoints.add(-bucket.discountBasisPoints.sum());
+            for (int i = 0; i < revenueByCategory.length; i++) {
+                revenueByCategory[i].add(-bucket.revenueByCategory[i].sum());
+            }
+            bucket.revenueByWaiter.forEach((id, adder) -> revenueByWaiter.get(id).add(-adder.sum()));
+            bucket.revenueByTable.forEach((number, adder) -> revenueByTable.get(number).add(-adder.sum()));
+        }
+    }
+}
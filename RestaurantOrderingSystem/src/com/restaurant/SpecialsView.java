@@ -0,0 +1,35 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.ResourceBundle;
+
+/**
+ * Today's specials, in the language of a resource bundle.
+ */
+public class SpecialsView implements Printable {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private static final MessageCatalog.Template SPECIAL = MessageCatalog.compile(" - %-25s (€%.2f)%n");
+
+    private final List<Dish> specials;
+    private final ResourceBundle messages;
+
+    public SpecialsView(List<Dish> specials, ResourceBundle messages) {
+        this.specials = specials;
+        this.messages = messages;
+    }
+
+    @Override
+    public void renderTo(Appendable out) throws IOException {
+        RenderBuffer.appendTo(out, sb -> {
+            sb.append("\n========== ").append(messages.getString("todays_specials_header")).append(" ==========")
+              .append(LINE_SEPARATOR);
+            for (Dish dish : specials) {
+                SPECIAL.appendTo(sb, dish.name(), dish.price());
+            }
+            sb.append("==========================================================").append(LINE_SEPARATOR);
+        });
+    }
+}
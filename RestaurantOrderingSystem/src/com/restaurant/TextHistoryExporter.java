@@ -0,0 +1,162 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Streams order history to text, one order per line, in the format read back by
+ * {@link Order#parse(String, Menu)} and {@link TextHistoryLoader}:
+ *
+ * <pre>
+ * TableNumber,WaiterName,WaiterId,Dish1,Dish2,...|Status|Discount|FinalPrice|Capacity|PlacedAt
+ * </pre>
+ *
+ * A dish ordered several times is listed once per unit. The discount is a percentage and the
+ * final price is in currency units, both with two decimals; PlacedAt is in epoch milliseconds. Lines are formatted into one
+ * reusable buffer that is written out in large batches, so memory use does not grow with the
+ * number of orders exported.
+ */
+public final class TextHistoryExporter {
+
+    // The buffer is written out once it holds this many characters.
+    private static final int FLUSH_CHARS = 64 * 1024;
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Writer out;
+    private final StringBuilder buffer = new StringBuilder(FLUSH_CHARS + 1024);
+    private final char[] chunk = new char[FLUSH_CHARS + 1024];
+    private long linesWritten;
+
+    /**
+     * Creates an exporter that writes to the given writer. Because this class does its own
+     * batching, the writer does not need to be buffered.
+     *
+     * @param out The writer to export to; it is flushed but not closed by {@link #flush()}.
+     */
+    public TextHistoryExporter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Exports orders to a file, replacing it if it exists. The orders are written to a temporary
+     * file next to it first, so a failed export leaves any existing file untouched.
+     *
+     * @param orders   The orders to export, e.g. a history's order list or a mapped history.
+     * @param filePath The file to write.
+     * @return The number of orders written.
+     * @throws IOException If the file cannot be written or an order cannot be represented as text.
+     */
+    public static long export(Iterable<Order> orders, Path filePath) throws IOException {
+        Path target = filePath.toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+        try {
+            long lines;
+            try (Writer writer = new OutputStreamWriter(Files.newOutputStream(temp), StandardCharsets.UTF_8)) {
+                TextHistoryExporter exporter = new TextHistoryExporter(writer);
+                for (Order order : orders) {
+                    exporter.write(order);
+                }
+                exporter.flush();
+                lines = exporter.linesWritten;
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return lines;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Adds one order to the export.
+     *
+     * @param order The order to write.
+     * @throws IOException If writing fails, or a name contains characters the format cannot hold.
+     */
+    public void write(Order order) throws IOException {
+        checkName(order.getWaiter().getName(), "Waiter name");
+        String[] unwritableDish = new String[1];
+        order.forEachLine((dish, quantity) -> {
+            if (!isWritable(dish.name())) {
+                unwritableDish[0] = dish.name();
+            }
+        });
+        if (unwritableDish[0] != null) {
+            checkName(unwritableDish[0], "Dish name");
+        }
+
+        appendTo(buffer, order).append(LINE_SEPARATOR);
+        linesWritten++;
+        if (buffer.length() >= FLUSH_CHARS) {
+            drain();
+        }
+    }
+
+    // Writes out everything buffered so far and flushes the underlying writer.
+    public void flush() throws IOException {
+        drain();
+        out.flush();
+    }
+
+    private void drain() throws IOException {
+        int length = buffer.length();
+        char[] chars = length <= chunk.length ? chunk : new char[length];
+        buffer.getChars(0, length, chars, 0);
+        out.write(chars, 0, length);
+        buffer.setLength(0);
+    }
+
+    /**
+     * Appends the text form of an order, without a line separator.
+     *
+     * @param sb    The builder to append to.
+     * @param order The order to format.
+     * @return The builder.
+     */
+    public static StringBuilder appendTo(StringBuilder sb, Order order) {
+        sb.append(order.getTable().getTableNumber()).append(',')
+          .append(order.getWaiter().getName()).append(',')
+          .append(order.getWaiter().getWaiterId());
+        order.forEachLine((dish, quantity) -> {
+            for (int n = 0; n < quantity; n++) {
+                sb.append(',').append(dish.name());
+            }
+        });
+        sb.append('|').append(order.getStatus().name()).append('|');
+        Money.appendTo(sb, Money.basisPoints(order.getDiscountPercentage())).append('|');
+        Money.appendTo(sb, order.getFinalPriceCents()).append('|');
+        sb.append(order.getTable().getCapacity()).append('|');
+        return sb.append(order.getPlacedAt().toEpochMilli());
+    }
+
+    // The parser trims fields and splits on ',' and '|', so names using those cannot round-trip.
+    private static boolean isWritable(String name) {
+        if (name.isEmpty() || name.charAt(0) <= ' ' || name.charAt(name.length() - 1) <= ' ') {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == ',' || c == '|' || c == '\n' || c == '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void checkName(String name, String what) throws IOException {
+        if (!isWritable(name)) {
+            throw new IOException(what + " \"" + name + "\" cannot be written as text: names must not be blank,"
+                    + " start or end with whitespace, or contain ',', '|' or line breaks.");
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.restaurant;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.ResourceBundle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Bulk import of order history saved as text, one order per line.
+ * The file is split into line-aligned chunks that are parsed in parallel on a fork-join pool,
+ * all against one shared menu and resource bundle, and the results are merged back in file order.
+ * A line that cannot be parsed is reported with its line number instead of aborting the import.
+ * Lines are tokenized in place in the file's text, so no per-line strings are created.
+ */
+public final class TextHistoryLoader {
+
+    // Chunks smaller than this are not worth a task of their own.
+    private static final int MIN_CHUNK_CHARS = 64 * 1024;
+
+    // Aim for a few chunks per worker so uneven lines still balance out.
+    private static final int CHUNKS_PER_WORKER = 4;
+
+    private TextHistoryLoader() {
+    }
+
+    /**
+     * A line that could not be imported completely.
+     *
+     * @param lineNumber The line's 1-based number in the file.
+     * @param message    What was wrong with it.
+     */
+    public record ParseError(long lineNumber, String message) {
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + message;
+        }
+    }
+
+    /**
+     * The outcome of an import.
+     *
+     * @param orders The orders that were parsed, in file order.
+     * @param errors Problems found, in file order. A line with unknown dishes is reported
+     *               here but its order is still imported with the dishes that were found.
+     */
+    public record Result(List<Order> orders, List<ParseError> errors) {
+    }
+
+    /**
+     * Imports a text history file using the common fork-join pool.
+     *
+     * @param filePath The file to read.
+     * @param menu     The menu to resolve dishes against.
+     * @param messages The resource bundle given to the imported orders.
+     * @return The imported orders and any per-line errors.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Result load(Path filePath, Menu menu, ResourceBundle messages) throws IOException {
+        return load(filePath, menu, messages, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Imports a text history file on the given pool.
+     *
+     * @param filePath The file to read.
+     * @param menu     The menu to resolve dishes against.
+     * @param messages The resource bundle given to the imported orders.
+     * @param pool     The pool that parses the chunks.
+     * @return The imported orders and any per-line errors.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Result load(Path filePath, Menu menu, ResourceBundle messages, ForkJoinPool pool) throws IOException {
+        String text = Files.readString(filePath);
+        OrderParser parser = new OrderParser(menu, messages);
+
+        int[] bounds = chunkBounds(text, pool.getParallelism());
+        Chunk[] chunks = new Chunk[bounds.length - 1];
+        pool.invoke(new ParseChunks(text, bounds, chunks, parser, 0, chunks.length));
+
+        // Merge in file order, turning chunk-relative line numbers into file line numbers.
+        int orderCount = 0;
+        for (Chunk chunk : chunks) {
+            orderCount += chunk.orders.size();
+        }
+        List<Order> orders = new ArrayList<>(orderCount);
+        List<ParseError> errors = new ArrayList<>();
+        long firstLine = 1;
+        for (Chunk chunk : chunks) {
+            orders.addAll(chunk.orders);
+            for (ParseError error : chunk.errors) {
+                errors.add(new ParseError(firstLine + error.lineNumber(), error.message()));
+            }
+            firstLine += chunk.lineCount;
+        }
+        return new Result(orders, errors);
+    }
+
+    // Start offsets of the chunks plus the text length; every chunk but the first starts right after a '\n'.
+    private static int[] chunkBounds(String text, int workers) {
+        int target = Math.max(MIN_CHUNK_CHARS, text.length() / Math.max(1, workers * CHUNKS_PER_WORKER));
+        List<Integer> bounds = new ArrayList<>();
+        bounds.add(0);
+        int start = 0;
+        while (text.length() - start > target) {
+            int newline = text.indexOf('\n', start + target);
+            if (newline < 0 || newline + 1 == text.length()) {
+                break;
+            }
+            start = newline + 1;
+            bounds.add(start);
+        }
+        bounds.add(text.length());
+        return bounds.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Orders and errors of one chunk; error line numbers are 0-based within the chunk.
+    private static final class Chunk {
+        final List<Order> orders = new ArrayList<>();
+        final List<ParseError> errors = new ArrayList<>();
+        long lineCount;
+    }
+
+    // Splits the chunk range in half until a single chunk is left, then parses it.
+    private static final class ParseChunks extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient String text;
+        private final int[] bounds;
+        private final transient Chunk[] results;
+        private final transient OrderParser parser;
+        private final int from;
+        private final int to;
+
+        ParseChunks(String text, int[] bounds, Chunk[] results, OrderParser parser, int from, int to) {
+            this.text = text;
+            this.bounds = bounds;
+            this.results = results;
+            this.parser = parser;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ParseChunks(text, bounds, results, parser, from, middle),
+                          new ParseChunks(text, bounds, results, parser, middle, to));
+            } else if (to > from) {
+                results[from] = parse(bounds[from], bounds[from + 1]);
+            }
+        }
+
+        private Chunk parse(int start, int end) {
+            Chunk chunk = new Chunk();
+            List<String> failedDishes = new ArrayList<>();
+            OrderLineTokenizer line = new OrderLineTokenizer();
+            int lineStart = start;
+            while (lineStart < end) {
+                int newline = text.indexOf('\n', lineStart);
+                int lineEnd = newline < 0 || newline >= end ? end : newline;
+                int contentEnd = lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r' ? lineEnd - 1 : lineEnd;
+                line.reset(text, lineStart, contentEnd);
+
+                if (!line.isBlank()) {
+                    try {
+                        chunk.orders.add(parser.parse(line, failedDishes));
+                        if (!failedDishes.isEmpty()) {
+                            chunk.errors.add(new ParseError(chunk.lineCount,
+                                    "Failed to add the following dishes: " + String.join(", ", failedDishes)));
+                            failedDishes.clear();
+                        }
+                    } catch (IllegalArgumentException e) {
+                        chunk.errors.add(new ParseError(chunk.lineCount, e.getMessage()));
+                    }
+                }
+                chunk.lineCount++;
+                lineStart = lineEnd + 1;
+            }
+            return chunk;
+        }
+    }
+}
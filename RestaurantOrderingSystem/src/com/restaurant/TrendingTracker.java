@@ -0,0 +1,207 @@
+package com.restaurant;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Approximate "what is trending" tracker over an unbounded stream of orders, in fixed memory.
+ *
+ * Units ordered are counted in a count-min sketch, so memory does not depend on how many
+ * dishes or orders have been seen, and a small table keeps the k dishes with the highest
+ * estimates. Counts decay exponentially with the age of the order: an order placed one
+ * horizon ago counts about 37% as much as one placed now, so the scores describe roughly
+ * the last horizon (e.g. the last hour or day) without keeping any per-window data.
+ *
+ * Decay uses a fixed landmark time: an order placed at t is added with weight e^((t - landmark) / horizon),
+ * and scores are divided by e^((now - landmark) / horizon) when read. Nothing has to be decayed
+ * as time passes, and the ranking never changes just because time passed.
+ */
+public class TrendingTracker implements OrderListener {
+
+    private static final int DEFAULT_WIDTH = 256;
+    private static final int DEFAULT_DEPTH = 4;
+    private static final int DEFAULT_TOP_K = 10;
+
+    // Weights are rebased onto a new landmark before e^x gets anywhere near overflowing a double.
+    private static final double MAX_EXPONENT = 200;
+
+    // Odd multipliers giving each sketch row its own hash of the dish name.
+    private static final int[] ROW_SEEDS = {0x9E3779B1, 0x85EBCA77, 0xC2B2AE3D, 0x27D4EB2F, 0x165667B1, 0xD3A2646D};
+
+    private final Duration horizon;
+    private final double horizonMillis;
+    private final Clock clock;
+    private final int width;
+    private final double[][] sketch;
+    private final Dish[] topDishes;
+    private final double[] topWeights;
+    private int topSize;
+    private long landmarkMillis;
+
+    /**
+     * A trending dish and its decayed score.
+     *
+     * @param dish  The dish.
+     * @param score Estimated units ordered, weighted by recency; never below the true value.
+     */
+    public record Trend(Dish dish, double score) {
+    }
+
+    // Creates a tracker with a 256 x 4 sketch that keeps the top ten dishes.
+    public TrendingTracker(Duration horizon) {
+        this(horizon, DEFAULT_WIDTH, DEFAULT_DEPTH, DEFAULT_TOP_K, Clock.systemUTC());
+    }
+
+    /**
+     * Creates a tracker.
+     *
+     * @param horizon The decay time constant, e.g. one hour for "trending in the last hour".
+     * @param width   Counters per sketch row; more counters mean smaller overestimates.
+     * @param depth   Number of sketch rows; more rows make a large overestimate less likely.
+     * @param k       Number of trending dishes kept.
+     * @param clock   The clock that defines "now" for scores.
+     */
+    public TrendingTracker(Duration horizon, int width, int depth, int k, Clock clock) {
+        if (horizon.isNegative() || horizon.isZero()) {
+            throw new IllegalArgumentException("Horizon must be positive.");
+        }
+        if (width < 1 || depth < 1 || depth > ROW_SEEDS.length || k < 1) {
+            throw new IllegalArgumentException("Invalid sketch size.");
+        }
+        this.horizon = horizon;
+        this.horizonMillis = horizon.toMillis();
+        this.clock = clock;
+        this.width = width;
+        this.sketch = new double[depth][width];
+        this.topDishes = new Dish[k];
+        this.topWeights = new double[k];
+        this.landmarkMillis = clock.millis();
+    }
+
+    public Duration getHorizon() {
+        return horizon;
+    }
+
+    @Override
+    public void orderAdded(Order order) {
+        long placedAt = order.getPlacedAt().toEpochMilli();
+        order.forEachLine((dish, quantity) -> record(dish, quantity, placedAt));
+    }
+
+    @Override
+    public synchronized void historyReset(List<Order> orders) {
+        for (double[] row : sketch) {
+            Arrays.fill(row, 0);
+        }
+        Arrays.fill(topDishes, null);
+        Arrays.fill(topWeights, 0);
+        topSize = 0;
+        landmarkMillis = clock.millis();
+        orders.forEach(this::orderAdded);
+    }
+
+    /**
+     * Records units of a dish ordered at a given time.
+     *
+     * @param dish      The dish ordered.
+     * @param units     Number of units.
+     * @param atMillis  When they were ordered, in epoch milliseconds.
+     */
+    public synchronized void record(Dish dish, int units, long atMillis) {
+        double exponent = (atMillis - landmarkMillis) / horizonMillis;
+        if (exponent > MAX_EXPONENT) {
+            rebase(atMillis);
+            exponent = 0;
+        }
+        double weight = units * Math.exp(exponent);
+        if (weight == 0) {
+            return; // So old that it no longer counts
+        }
+
+        int hash = dish.name().hashCode();
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < sketch.length; row++) {
+            int column = column(hash, row);
+            sketch[row][column] += weight;
+            estimate = Math.min(estimate, sketch[row][column]);
+        }
+        offer(dish, estimate);
+    }
+
+    /**
+     * The dishes with the highest recency-weighted scores right now.
+     *
+     * @param limit Maximum number of dishes to return.
+     * @return Up to {@code limit} dishes, highest score first.
+     */
+    public synchronized List<Trend> trending(int limit) {
+        double scale = Math.exp(-(clock.millis() - landmarkMillis) / horizonMillis);
+        int count = Math.min(Math.max(limit, 0), topSize);
+        List<Trend> trends = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            trends.add(new Trend(topDishes[i], topWeights[i] * scale));
+        }
+        return trends;
+    }
+
+    // Estimated recency-weighted units of one dish right now.
+    public synchronized double score(Dish dish) {
+        int hash = dish.name().hashCode();
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < sketch.length; row++) {
+            estimate = Math.min(estimate, sketch[row][column(hash, row)]);
+        }
+        return estimate * Math.exp(-(clock.millis() - landmarkMillis) / horizonMillis);
+    }
+
+    private int column(int hash, int row) {
+        int h = hash * ROW_SEEDS[row];
+        h ^= h >>> 16;
+        return Math.floorMod(h, width);
+    }
+
+    // Keeps the k dishes with the highest estimates, sorted by estimate.
+    private void offer(Dish dish, double estimate) {
+        int position = 0;
+        while (position < topSize && !topDishes[position].equals(dish)) {
+            position++;
+        }
+        if (position == topSize) {
+            if (topSize < topDishes.length) {
+                topSize++;
+            } else if (estimate > topWeights[topSize - 1]) {
+                position = topSize - 1;
+            } else {
+                return;
+            }
+        }
+        topDishes[position] = dish;
+        topWeights[position] = estimate;
+        while (position > 0 && topWeights[position] > topWeights[position - 1]) {
+            Dish d = topDishes[position];
+            topDishes[position] = topDishes[position - 1];
+            topDishes[position - 1] = d;
+            double w = topWeights[position];
+            topWeights[position] = topWeights[position - 1];
+            topWeights[position - 1] = w;
+            position--;
+        }
+    }
+
+    // Moves the landmark forward, scaling every stored weight down to match.
+    private void rebase(long newLandmarkMillis) {
+        double scale = Math.exp(-(newLandmarkMillis - landmarkMillis) / horizonMillis);
+        for (double[] row : sketch) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] *= scale;
+            }
+        }
+        for (int i = 0; i < topSize; i++) {
+            topWeights[i] *= scale;
+        }
+        landmarkMillis = newLandmarkMillis;
+    }
+}